@@ -0,0 +1,9 @@
+#!/bin/sh
+# Fast-start images load the AOT bean definitions and the class data sharing archive
+# recorded at build time; JAVA_OPTS is passed through either way.
+set -e
+cd /app/application
+if [ "$FAST_START" = "true" ]; then
+  exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true $JAVA_OPTS -jar app.jar
+fi
+exec java $JAVA_OPTS -jar app.jar
@@ -0,0 +1,37 @@
+#!/bin/sh
+# Restarts one app container, reports how long it takes to become ready and the latency
+# clients see through nginx during the first minute. Compare an image built with
+# FAST_START=false against one built with FAST_START=true.
+set -eu
+SERVICE=${1:-app2}
+URL=${URL:-http://localhost/bookings?limit=50}
+SECONDS_TO_SAMPLE=${SECONDS_TO_SAMPLE:-60}
+samples=$(mktemp)
+
+docker compose restart "$SERVICE" >/dev/null
+start=$(date +%s%N)
+
+(
+  end=$(( $(date +%s) + SECONDS_TO_SAMPLE ))
+  while [ "$(date +%s)" -lt "$end" ]; do
+    curl -s -o /dev/null -w '%{time_total} %{http_code}\n' "$URL" >> "$samples" || true
+  done
+) &
+sampler=$!
+
+until docker compose exec -T "$SERVICE" wget -qO- http://localhost:8080/actuator/health/readiness >/dev/null 2>&1; do
+  sleep 0.2
+done
+echo "$SERVICE ready after $(( ($(date +%s%N) - start) / 1000000 )) ms"
+docker compose logs "$SERVICE" | grep "Started BookingServiceApplication" | tail -1 || true
+
+wait "$sampler"
+awk '{ print $1 * 1000 }' "$samples" | sort -n | awk -v window="$SECONDS_TO_SAMPLE" '
+  function at(q,  i) { i = int(NR * q) + 1; return v[i > NR ? NR : i] }
+  { v[NR] = $1 }
+  END {
+    if (NR == 0) { print "no samples"; exit }
+    printf "first %ss: %d requests, p50 %.1f ms, p99 %.1f ms, max %.1f ms\n", window, NR, at(0.5), at(0.99), v[NR]
+  }'
+awk '$2 != 200 { n++ } END { printf "non-200 answers: %d\n", n }' "$samples"
+rm -f "$samples"
@@ -0,0 +1,11 @@
+#!/bin/sh
+# Runs once when the primary's data directory is created: adds the role and pg_hba
+# entry the replica uses for streaming replication.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" \
+    -v user="$REPLICATION_USER" -v password="$REPLICATION_PASSWORD" <<-'EOSQL'
+	CREATE ROLE :"user" WITH REPLICATION LOGIN PASSWORD :'password';
+EOSQL
+
+echo "host replication $REPLICATION_USER all scram-sha-256" >> "$PGDATA/pg_hba.conf"
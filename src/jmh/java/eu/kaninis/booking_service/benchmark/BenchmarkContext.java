@@ -0,0 +1,39 @@
+package eu.kaninis.booking_service.benchmark;
+
+import eu.kaninis.booking_service.BookingServiceApplication;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without a web server on the embedded H2 "test" profile, with
+ * effectively unlimited slot capacity so write benchmarks never run out of seats.
+ */
+final class BenchmarkContext {
+
+    static final LocalDateTime SLOT = LocalDateTime.of(2030, 1, 1, 19, 0);
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--booking.slots.default-capacity=" + Integer.MAX_VALUE / 2,
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(BookingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+
+    static Booking sampleBooking() {
+        return new Booking("Bench User", "bench@example.com", SLOT, 2, BookingStatus.PENDING);
+    }
+}
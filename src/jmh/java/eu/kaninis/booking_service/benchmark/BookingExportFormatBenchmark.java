@@ -0,0 +1,96 @@
+package eu.kaninis.booking_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.web.CborConfig;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of a bulk export per wire format: encoding plus compression of {@code bookings}
+ * rows into a byte array, as {@code GET /bookings} produces them. The encoded size of
+ * each combination is printed at the end of its trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingExportFormatBenchmark {
+
+    public enum Format { JSON, CBOR }
+
+    public enum Compression { NONE, GZIP, ZSTD }
+
+    @Param({"JSON", "CBOR"})
+    public Format format;
+
+    @Param({"NONE", "GZIP", "ZSTD"})
+    public Compression compression;
+
+    @Param({"1000"})
+    public int bookings;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private List<Booking> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        mapper = format == Format.CBOR ? CborConfig.cborMapper(objectMapper) : objectMapper;
+        rows = new ArrayList<>(bookings);
+        BookingStatus[] statuses = BookingStatus.values();
+        for (int i = 0; i < bookings; i++) {
+            rows.add(new Booking("Guest " + i, "guest" + i + "@example.com",
+                    BenchmarkContext.SLOT.plusMinutes(15L * i), 1 + i % 8, statuses[i % statuses.length]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s/%s: %d bytes for %d bookings%n", format, compression, export().length, bookings);
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] export() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = compress(buffer)) {
+            mapper.writeValue(out, rows);
+        }
+        return buffer.toByteArray();
+    }
+
+    private OutputStream compress(OutputStream out) throws IOException {
+        return switch (compression) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out);
+            case ZSTD -> new ZstdOutputStream(out);
+        };
+    }
+}
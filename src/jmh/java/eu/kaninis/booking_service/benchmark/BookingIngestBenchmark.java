@@ -0,0 +1,96 @@
+package eu.kaninis.booking_service.benchmark;
+
+import eu.kaninis.booking_service.booking.ingest.BookingIngestService;
+import eu.kaninis.booking_service.booking.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates per second through the synchronous path versus the write-behind pipeline,
+ * end to end: the async variant only counts once the writer has committed everything.
+ * The {@code concurrent} variants run {@value #CLIENTS} callers at once, which is where
+ * the spill log's group commit shares one fsync between requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingIngestBenchmark {
+
+    private static final int BURST = 1000;
+    private static final int CLIENTS = 16;
+
+    @Param({"true", "false"})
+    private boolean fsync;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingIngestService bookingIngestService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start(
+                "--booking.ingest.enabled=true",
+                "--booking.ingest.queue-capacity=" + BURST * CLIENTS,
+                "--booking.ingest.spill.fsync=" + fsync,
+                "--booking.ingest.spill.dir=" + Files.createTempDirectory("ingest-bench"));
+        bookingService = context.getBean(BookingService.class);
+        bookingIngestService = context.getBean(BookingIngestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void syncCreate() {
+        for (int i = 0; i < BURST; i++) {
+            bookingService.create(BenchmarkContext.sampleBooking());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public boolean asyncCreate() {
+        for (int i = 0; i < BURST; i++) {
+            bookingIngestService.submit(BenchmarkContext.sampleBooking()).orElseThrow();
+        }
+        return bookingIngestService.awaitDrained(Duration.ofMinutes(1));
+    }
+
+    @Benchmark
+    @Threads(CLIENTS)
+    @OperationsPerInvocation(BURST)
+    public void syncCreateConcurrent() {
+        syncCreate();
+    }
+
+    @Benchmark
+    @Threads(CLIENTS)
+    @OperationsPerInvocation(BURST)
+    public boolean asyncCreateConcurrent() {
+        return asyncCreate();
+    }
+}
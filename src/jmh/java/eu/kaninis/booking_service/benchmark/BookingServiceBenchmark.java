@@ -0,0 +1,92 @@
+package eu.kaninis.booking_service.benchmark;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    /** Compare runs to see what the timing aspect costs per call. */
+    @Param({"true", "false"})
+    private boolean instrumented;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingRepository bookingRepository;
+    private Long existingId;
+    private Booking updateRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--booking.metrics.enabled=" + instrumented);
+        bookingService = context.getBean(BookingService.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        List<Booking> seed = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            seed.add(BenchmarkContext.sampleBooking());
+        }
+        existingId = bookingRepository.saveAll(seed).get(0).getId();
+        updateRequest = BenchmarkContext.sampleBooking();
+        updateRequest.setStatus(BookingStatus.CONFIRMED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Booking create() {
+        return bookingService.create(BenchmarkContext.sampleBooking());
+    }
+
+    @Benchmark
+    public Optional<Booking> findById() {
+        return bookingService.findById(existingId);
+    }
+
+    @Benchmark
+    public Optional<Booking> update() {
+        return bookingService.update(existingId, updateRequest);
+    }
+
+    @Benchmark
+    public List<Booking> findAll() {
+        return bookingService.findAll();
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        bookingService.streamAll(blackhole::consume);
+    }
+}
@@ -0,0 +1,129 @@
+package eu.kaninis.booking_service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Issues one {@link Operation} against the service and returns the HTTP status, or
+ * {@link #TIMEOUT} / {@link #IO_ERROR}. Bookings go to random evening slots over the
+ * coming year so creates do not run a single slot out of seats, and every created
+ * booking joins the pool that gets and updates pick from.
+ */
+final class BookingClient {
+
+    static final int TIMEOUT = -1;
+    static final int IO_ERROR = 0;
+
+    private static final LocalDateTime FIRST_SLOT = LocalDate.now().plusDays(30).atTime(17, 0);
+    private static final int SLOTS_PER_DAY = 20;
+
+    private record Known(long id, LocalDateTime dateTime) {
+    }
+
+    private final URI target;
+    private final Duration timeout;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Known> known = new ArrayList<>();
+
+    BookingClient(URI target, Duration timeout) {
+        this.target = target;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    int execute(Operation operation, RandomGenerator random) {
+        try {
+            return switch (operation) {
+                case CREATE -> create(random);
+                case GET -> pick(random) instanceof Known booking
+                        ? send(request("/bookings/" + booking.id()).GET())
+                        : create(random);
+                case UPDATE -> pick(random) instanceof Known booking
+                        ? send(write("/bookings/" + booking.id())
+                                .PUT(json(body(random, booking.dateTime(), "CONFIRMED"))))
+                        : create(random);
+                case LIST -> send(request("/bookings?limit=50").GET());
+            };
+        } catch (HttpTimeoutException e) {
+            return TIMEOUT;
+        } catch (IOException e) {
+            return IO_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IO_ERROR;
+        }
+    }
+
+    /** Creates {@code count} bookings up front so gets and updates have something to hit. */
+    void seed(int count, RandomGenerator random) {
+        for (int i = 0; i < count; i++) {
+            int status = execute(Operation.CREATE, random);
+            if (status / 100 != 2) {
+                throw new IllegalStateException("Seeding failed: POST /bookings answered " + status);
+            }
+        }
+    }
+
+    private int create(RandomGenerator random) throws IOException, InterruptedException {
+        LocalDateTime slot = FIRST_SLOT
+                .plusDays(random.nextInt(365))
+                .plusMinutes(15L * random.nextInt(SLOTS_PER_DAY));
+        HttpResponse<String> response = http.send(write("/bookings").POST(json(body(random, slot, "PENDING"))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 == 2) {
+            JsonNode created = objectMapper.readTree(response.body());
+            synchronized (known) {
+                known.add(new Known(created.path("id").asLong(), slot));
+            }
+        }
+        return response.statusCode();
+    }
+
+    private Known pick(RandomGenerator random) {
+        synchronized (known) {
+            return known.isEmpty() ? null : known.get(random.nextInt(known.size()));
+        }
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(target.resolve(path))
+                .timeout(timeout)
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.Builder write(String path) {
+        return request(path).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher json(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    private static String body(RandomGenerator random, LocalDateTime slot, String status) {
+        int guest = random.nextInt(1_000_000);
+        return """
+                {"name":"Load %d","email":"load%d@example.com","dateTime":"%s","numberOfPeople":%d,"status":"%s"}"""
+                .formatted(guest, guest, slot, 1 + random.nextInt(6), status);
+    }
+}
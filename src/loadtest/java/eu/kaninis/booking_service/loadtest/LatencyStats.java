@@ -0,0 +1,95 @@
+package eu.kaninis.booking_service.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and status codes of one operation. {@code latency} runs from the time the
+ * request was scheduled to go out, so a stalled server is charged for every request it
+ * held back (no coordinated omission). {@code serviceTime} runs from the time it was
+ * actually sent and shows what a closed-loop tool would have reported.
+ */
+final class LatencyStats {
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final Histogram serviceTime = new ConcurrentHistogram(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(int status, long latencyNanos, long serviceTimeNanos) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceTimeNanos));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    void addTo(LatencyStats total) {
+        total.latency.add(latency);
+        total.serviceTime.add(serviceTime);
+        statuses.forEach((status, count) ->
+                total.statuses.computeIfAbsent(status, key -> new LongAdder()).add(count.sum()));
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+
+    long errors() {
+        return statuses.entrySet().stream()
+                .filter(entry -> entry.getKey() < 200 || entry.getKey() >= 400)
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    double latencyMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    Map<String, Object> toReport(double seconds) {
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(statusName(status), count.sum()));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("count", count());
+        report.put("errors", errors());
+        report.put("throughput", count() / seconds);
+        report.put("statuses", statusCounts);
+        report.put("latencyMs", percentiles(latency));
+        report.put("serviceTimeMs", percentiles(serviceTime));
+        report.put("latencyHistogram", encode(latency));
+        return report;
+    }
+
+    private static String statusName(int status) {
+        return switch (status) {
+            case BookingClient.TIMEOUT -> "timeout";
+            case BookingClient.IO_ERROR -> "io-error";
+            default -> String.valueOf(status);
+        };
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        values.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        values.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        values.put("p99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
+        values.put("max", histogram.getMaxValue() / 1000.0);
+        values.put("mean", histogram.getMean() / 1000.0);
+        return values;
+    }
+
+    // Compressed HdrHistogram (microseconds), so runs can be merged or re-plotted later
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
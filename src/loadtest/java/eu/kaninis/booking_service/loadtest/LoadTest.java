@@ -0,0 +1,156 @@
+package eu.kaninis.booking_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.kaninis.booking_service.BookingServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test for {@code /bookings}. Requests are scheduled at the configured
+ * arrival rate whether or not earlier ones have finished, each on its own virtual
+ * thread, and their latency is measured from the scheduled time. A slow server therefore
+ * shows up as growing latency rather than as a quietly lower request rate. Results of
+ * the warm-up period are discarded. The JSON report ends with a pass/fail verdict, and
+ * the exit code is 1 when the run fails its {@code --max-p99} or {@code --max-error-rate}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = options.start() == LoadTestOptions.Start.NONE ? null : start(options);
+        boolean passed;
+        try {
+            URI target = context == null
+                    ? options.target()
+                    : URI.create("http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port"));
+            passed = run(options, target);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean run(LoadTestOptions options, URI target) throws IOException {
+        BookingClient client = new BookingClient(target, options.timeout());
+        SplittableRandom random = new SplittableRandom();
+        client.seed(options.seed(), random);
+
+        Map<Operation, LatencyStats> warmup = statsPerOperation();
+        Map<Operation, LatencyStats> measured = statsPerOperation();
+        double meanGapNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long lateDispatches = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long scheduled = start;
+            while (scheduled - end < 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait < -1_000_000) {
+                    lateDispatches++;
+                }
+                while (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    wait = scheduled - System.nanoTime();
+                }
+                long intended = scheduled;
+                Operation operation = options.mix().pick(random);
+                LatencyStats stats = (intended - measureFrom < 0 ? warmup : measured).get(operation);
+                executor.execute(() -> {
+                    long sent = System.nanoTime();
+                    int status = client.execute(operation, ThreadLocalRandom.current());
+                    long done = System.nanoTime();
+                    stats.record(status, done - intended, done - sent);
+                });
+                scheduled += gap(options.arrival(), meanGapNanos, random);
+            }
+        }
+
+        LatencyStats total = new LatencyStats();
+        measured.values().forEach(stats -> stats.addTo(total));
+        double seconds = options.duration().toNanos() / 1e9;
+        double p99 = total.latencyMillis(99);
+        double errorRate = total.count() == 0 ? 1 : (double) total.errors() / total.count();
+        boolean passed = (options.maxP99() == null || p99 <= options.maxP99().toNanos() / 1e6)
+                && errorRate <= options.maxErrorRate();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", target.toString());
+        report.put("arrival", options.arrival());
+        report.put("rate", options.rate());
+        report.put("warmupSeconds", options.warmup().toNanos() / 1e9);
+        report.put("durationSeconds", seconds);
+        report.put("mix", options.mix().weights());
+        report.put("lateDispatches", lateDispatches);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        measured.forEach((operation, stats) -> operations.put(operation.key(), stats.toReport(seconds)));
+        report.put("operations", operations);
+        report.put("total", total.toReport(seconds));
+        Map<String, Object> verdict = new LinkedHashMap<>();
+        verdict.put("maxP99Ms", options.maxP99() != null ? options.maxP99().toNanos() / 1e6 : null);
+        verdict.put("maxErrorRate", options.maxErrorRate());
+        verdict.put("p99Ms", p99);
+        verdict.put("errorRate", errorRate);
+        verdict.put("passed", passed);
+        report.put("verdict", verdict);
+
+        Files.createDirectories(options.report().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.report().toFile(), report);
+        System.out.printf("%d requests at %.0f/s: p50 %.1f ms, p99 %.1f ms, max %.1f ms, error rate %.4f -> %s (%s)%n",
+                total.count(), total.count() / seconds, total.latencyMillis(50), p99, total.latencyMillis(100),
+                errorRate, passed ? "PASSED" : "FAILED", options.report());
+        return passed;
+    }
+
+    private static long gap(LoadTestOptions.Arrival arrival, double meanGapNanos, SplittableRandom random) {
+        return switch (arrival) {
+            case CONSTANT -> Math.round(meanGapNanos);
+            case POISSON -> Math.round(-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        };
+    }
+
+    private static Map<Operation, LatencyStats> statsPerOperation() {
+        Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new LatencyStats());
+        }
+        return stats;
+    }
+
+    // Limits and warm-up that suit production would distort a single-client load test
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--booking.rate-limit.enabled=false",
+                "--booking.load-shedding.enabled=false",
+                "--booking.warmup.enabled=false",
+                "--booking.slots.default-capacity=" + Integer.MAX_VALUE / 2,
+                "--logging.level.root=WARN"));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BookingServiceApplication.class);
+        if (options.start() == LoadTestOptions.Start.H2) {
+            builder.profiles("test");
+        }
+        return builder.run(args.toArray(String[]::new));
+    }
+}
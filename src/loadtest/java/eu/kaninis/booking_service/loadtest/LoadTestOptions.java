@@ -0,0 +1,62 @@
+package eu.kaninis.booking_service.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line of {@link LoadTest}, as {@code --name=value} pairs. Without {@code --target}
+ * the service is started in-process ({@code --start=h2} or {@code --start=postgres}).
+ */
+record LoadTestOptions(URI target, Start start, Arrival arrival, double rate, Duration duration, Duration warmup,
+                       OperationMix mix, int seed, Duration timeout, Path report, Duration maxP99,
+                       double maxErrorRate) {
+
+    enum Start { NONE, H2, POSTGRES }
+
+    /** Constant spacing between requests, or exponential spacing (a Poisson process) with the same mean. */
+    enum Arrival { CONSTANT, POISSON }
+
+    private static final Set<String> NAMES = Set.of("target", "start", "arrival", "rate", "duration", "warmup",
+            "mix", "seed", "timeout", "report", "max-p99", "max-error-rate");
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !NAMES.contains(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "', expected --name=value with name in "
+                        + NAMES);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        URI target = values.containsKey("target") ? URI.create(values.get("target")) : null;
+        Start start = Start.valueOf(values.getOrDefault("start", target != null ? "none" : "h2").toUpperCase(Locale.ROOT));
+        if ((target == null) == (start == Start.NONE)) {
+            throw new IllegalArgumentException("Give either --target or --start=h2|postgres");
+        }
+        String maxP99 = values.get("max-p99");
+        return new LoadTestOptions(
+                target,
+                start,
+                Arrival.valueOf(values.getOrDefault("arrival", "poisson").toUpperCase(Locale.ROOT)),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "15s")),
+                OperationMix.parse(values.getOrDefault("mix", "create=10,get=60,update=10,list=20")),
+                Integer.parseInt(values.getOrDefault("seed", "500")),
+                DurationStyle.detectAndParse(values.getOrDefault("timeout", "10s")),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")),
+                maxP99 != null ? DurationStyle.detectAndParse(maxP99) : null,
+                Double.parseDouble(values.getOrDefault("max-error-rate", "0.01")));
+    }
+}
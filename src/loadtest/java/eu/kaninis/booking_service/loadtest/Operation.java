@@ -0,0 +1,15 @@
+package eu.kaninis.booking_service.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The requests a load test mixes: {@code POST /bookings}, {@code GET /bookings/{id}},
+ * {@code PUT /bookings/{id}} and {@code GET /bookings?limit=50}.
+ */
+enum Operation {
+    CREATE, GET, UPDATE, LIST;
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
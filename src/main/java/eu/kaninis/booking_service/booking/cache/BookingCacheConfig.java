@@ -0,0 +1,11 @@
+package eu.kaninis.booking_service.booking.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class BookingCacheConfig {
+
+    public static final String BOOKINGS = "bookings";
+}
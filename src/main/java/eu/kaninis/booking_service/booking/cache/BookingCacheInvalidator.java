@@ -0,0 +1,123 @@
+package eu.kaninis.booking_service.booking.cache;
+
+import eu.kaninis.booking_service.booking.db.ReplicaLagMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Evicts bookings from the local cache and, when cluster invalidation is on, tells the
+ * other nodes through PostgreSQL NOTIFY. NOTIFY is transactional, so peers only hear
+ * about a change once it has committed. With a replica, a read that missed the cache
+ * right after the commit may have cached the replica's older row, so the id is evicted
+ * once more after the replica's worst-case lag. A change to many bookings sends one
+ * notification carrying all their ids.
+ */
+@Component
+public class BookingCacheInvalidator {
+
+    public static final String CHANNEL = "booking_invalidation";
+    /** Payload that tells peers to drop every cached booking. */
+    public static final String ALL = "*";
+    /** Separates the ids of one notification. */
+    public static final String SEPARATOR = ",";
+    // PostgreSQL rejects payloads of 8000 bytes or more; longer id lists clear everything instead
+    private static final int MAX_PAYLOAD = 7999;
+
+    private final Cache cache;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean clusterInvalidation;
+    private final Executor afterReplicaLag;
+
+    public BookingCacheInvalidator(CacheManager cacheManager, JdbcTemplate jdbcTemplate,
+                                   @Value("${booking.cache.cluster-invalidation:false}") boolean clusterInvalidation,
+                                   ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(BookingCacheConfig.BOOKINGS));
+        this.jdbcTemplate = jdbcTemplate;
+        this.clusterInvalidation = clusterInvalidation;
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        Duration delay = monitor != null ? monitor.maxStaleness() : null;
+        this.afterReplicaLag = delay != null
+                ? CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    public void invalidate(Long id) {
+        invalidate(List.of(id));
+    }
+
+    /**
+     * Evicts {@code ids} like {@link #invalidate(Long)}, with one after-commit eviction and
+     * one notification for all of them.
+     */
+    public void invalidate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(cache::evict);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A reader may have re-cached the old row before commit; evict again once it is visible
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCommitted(ids);
+                }
+            });
+        }
+        if (clusterInvalidation) {
+            String payload = ids.stream().map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+            jdbcTemplate.query("select pg_notify(?, ?)", rs -> {
+            }, CHANNEL, payload.length() <= MAX_PAYLOAD ? payload : ALL);
+        }
+    }
+
+    /**
+     * Drops every cached booking, for changes too large to name id by id. As with
+     * {@link #invalidate}, the cache is cleared again once the change has committed.
+     */
+    public void invalidateAll() {
+        cache.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearCommitted();
+                }
+            });
+        }
+        if (clusterInvalidation) {
+            jdbcTemplate.query("select pg_notify(?, ?)", rs -> {
+            }, CHANNEL, ALL);
+        }
+    }
+
+    /** Clears the cache after a bulk change has committed, here or on another node. */
+    public void clearCommitted() {
+        cache.clear();
+        if (afterReplicaLag != null) {
+            afterReplicaLag.execute(cache::clear);
+        }
+    }
+
+    /** Evicts bookings whose change has committed, here or on another node. */
+    public void evictCommitted(Collection<Long> ids) {
+        ids.forEach(cache::evict);
+        if (afterReplicaLag != null) {
+            afterReplicaLag.execute(() -> ids.forEach(cache::evict));
+        }
+    }
+}
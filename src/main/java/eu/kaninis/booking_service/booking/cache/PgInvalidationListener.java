@@ -0,0 +1,104 @@
+package eu.kaninis.booking_service.booking.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Listens on {@link BookingCacheInvalidator#CHANNEL} and evicts the ids other nodes
+ * changed, sent as one list per change, or everything on {@link BookingCacheInvalidator#ALL}. Holds one pooled
+ * connection for as long as the application runs.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.cache.cluster-invalidation", havingValue = "true")
+public class PgInvalidationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PgInvalidationListener.class);
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final DataSource dataSource;
+    private final Cache cache;
+    private final BookingCacheInvalidator cacheInvalidator;
+    private volatile boolean running;
+    private Thread thread;
+
+    public PgInvalidationListener(DataSource dataSource, CacheManager cacheManager,
+                                  BookingCacheInvalidator cacheInvalidator) {
+        this.dataSource = dataSource;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(BookingCacheConfig.BOOKINGS));
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("booking-cache-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + BookingCacheInvalidator.CHANNEL);
+                }
+                // Anything could have changed while we were not listening
+                cache.clear();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            String parameter = notification.getParameter();
+                            if (BookingCacheInvalidator.ALL.equals(parameter)) {
+                                cacheInvalidator.clearCommitted();
+                            } else {
+                                cacheInvalidator.evictCommitted(
+                                        Arrays.stream(parameter.split(BookingCacheInvalidator.SEPARATOR))
+                                                .map(Long::valueOf)
+                                                .toList());
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Booking cache listener lost its connection, retrying in {} ms", RECONNECT_DELAY_MS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,52 +1,385 @@
 package eu.kaninis.booking_service.booking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.events.BookingEventStream;
+import eu.kaninis.booking_service.booking.idempotency.IdempotencyService;
+import eu.kaninis.booking_service.booking.idempotency.IdempotentResponse;
+import eu.kaninis.booking_service.booking.ingest.BookingIngestService;
+import eu.kaninis.booking_service.booking.ingest.IngestStatus;
+import eu.kaninis.booking_service.booking.model.BatchItemResult;
 import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingFields;
+import eu.kaninis.booking_service.booking.model.BookingImportResult;
+import eu.kaninis.booking_service.booking.model.BookingSearch;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+import eu.kaninis.booking_service.booking.model.BulkDeleteResult;
+import eu.kaninis.booking_service.booking.model.BulkStatusResult;
+import eu.kaninis.booking_service.booking.model.BulkStatusUpdate;
+import eu.kaninis.booking_service.booking.model.StatusUpdate;
+import eu.kaninis.booking_service.booking.service.BookingBatchService;
+import eu.kaninis.booking_service.booking.service.BookingPurgeService;
 import eu.kaninis.booking_service.booking.service.BookingService;
+import eu.kaninis.booking_service.booking.transfer.BookingTransferService;
+import eu.kaninis.booking_service.booking.web.CborConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/bookings")
 public class BookingController {
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String CSV_VALUE = "text/csv";
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10_000;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    static final String RESPOND_ASYNC = "respond-async";
+
     private final BookingService bookingService;
+    private final BookingBatchService bookingBatchService;
+    private final BookingEventStream bookingEventStream;
+    private final IdempotencyService idempotencyService;
+    private final BookingIngestService bookingIngestService;
+    private final BookingPurgeService bookingPurgeService;
+    private final BookingTransferService bookingTransferService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingBatchService bookingBatchService,
+                             BookingEventStream bookingEventStream, IdempotencyService idempotencyService,
+                             BookingIngestService bookingIngestService, BookingPurgeService bookingPurgeService,
+                             BookingTransferService bookingTransferService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.bookingBatchService = bookingBatchService;
+        this.bookingEventStream = bookingEventStream;
+        this.idempotencyService = idempotencyService;
+        this.bookingIngestService = bookingIngestService;
+        this.bookingPurgeService = bookingPurgeService;
+        this.bookingTransferService = bookingTransferService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = CborConfig.cborMapper(objectMapper);
     }
 
     @GetMapping
-    public List<Booking> getAllBookings() {
-        return bookingService.findAll();
+    public void getAllBookings(@RequestParam(defaultValue = "full") String fields,
+                               HttpServletResponse response) throws IOException {
+        Optional<BookingFields> selected = BookingFields.parse(fields);
+        if (selected.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            streamAll(selected.get(), value -> write(generator, value));
+            generator.writeEndArray();
+        }
+    }
+
+    @GetMapping(produces = NDJSON_VALUE)
+    public void streamBookings(@RequestParam(defaultValue = "full") String fields,
+                               HttpServletResponse response) throws IOException {
+        Optional<BookingFields> selected = BookingFields.parse(fields);
+        if (selected.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setContentType(NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            streamAll(selected.get(), value -> {
+                write(generator, value);
+                try {
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Same array as the JSON export; the compact choice for bulk reads
+    @GetMapping(produces = MediaType.APPLICATION_CBOR_VALUE)
+    public void getAllBookingsCbor(@RequestParam(defaultValue = "full") String fields,
+                                   HttpServletResponse response) throws IOException {
+        Optional<BookingFields> selected = BookingFields.parse(fields);
+        if (selected.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_CBOR_VALUE);
+        try (JsonGenerator generator = cborMapper.createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            streamAll(selected.get(), value -> write(generator, value));
+            generator.writeEndArray();
+        }
+    }
+
+    // Bulk reconciliation: COPY straight from PostgreSQL, no entities or JSON on the way
+    @GetMapping(path = "/export", produces = CSV_VALUE)
+    public void exportBookings(HttpServletResponse response) throws IOException {
+        response.setContentType(CSV_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\"");
+        bookingTransferService.export(response.getOutputStream());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<?> getBookingPage(@RequestParam int limit,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "full") String fields) {
+        Optional<BookingFields> selected = BookingFields.parse(fields);
+        if (limit < 1 || limit > MAX_PAGE_SIZE || selected.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<BookingCursor> after = Optional.empty();
+        if (cursor != null) {
+            after = BookingCursor.decode(cursor);
+            if (after.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return selected.get() == BookingFields.SUMMARY
+                ? ResponseEntity.ok(bookingService.findSummaryPage(after.orElse(null), limit))
+                : ResponseEntity.ok(bookingService.findPage(after.orElse(null), limit));
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return bookingEventStream.subscribe(lastEventId);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchBookings(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<BookingStatus> status,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "full") String fields) {
+        Optional<BookingFields> selected = BookingFields.parse(fields);
+        if (limit < 1 || limit > MAX_PAGE_SIZE || selected.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<BookingCursor> after = Optional.empty();
+        if (cursor != null) {
+            after = BookingCursor.decode(cursor);
+            if (after.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        BookingSearch search = new BookingSearch(from, to, status, email);
+        return selected.get() == BookingFields.SUMMARY
+                ? ResponseEntity.ok(bookingService.searchSummaries(search, after.orElse(null), limit))
+                : ResponseEntity.ok(bookingService.search(search, after.orElse(null), limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getBookingById(@PathVariable Long id) {
-        return bookingService.findById(id)
+    public ResponseEntity<?> getBookingById(@PathVariable Long id,
+                                            @RequestParam(defaultValue = "full") String fields) {
+        Optional<BookingFields> selected = BookingFields.parse(fields);
+        if (selected.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Served from the booking cache either way; the summary just sends less
+        Optional<Booking> booking = bookingService.findById(id);
+        if (selected.get() == BookingFields.SUMMARY) {
+            return booking.map(BookingSummary::of)
+                    .map(BookingController::okWithETag)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        return booking.map(BookingController::okWithETag)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable UUID trackingId) {
+        return bookingIngestService.status(trackingId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody Booking booking) {
-        Booking created = bookingService.create(booking);
-        return ResponseEntity.ok(created);
+    public ResponseEntity<?> createBooking(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                           @RequestHeader(value = "Prefer", required = false) String prefer,
+                                           @Valid @RequestBody Booking booking) {
+        if (prefer != null && prefer.contains(RESPOND_ASYNC) && idempotencyKey == null
+                && bookingIngestService.isEnabled()) {
+            return createAsync(booking);
+        }
+        if (idempotencyKey == null) {
+            return okWithETag(bookingService.create(booking));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        IdempotentResponse response = idempotencyService.execute(idempotencyKey, booking,
+                () -> okWithETag(bookingService.create(booking)));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.status())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (response.etag() != null) {
+            builder.header(HttpHeaders.ETAG, response.etag());
+        }
+        if (response.replayed()) {
+            builder.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return builder.body(response.body());
+    }
+
+    private ResponseEntity<?> createAsync(Booking booking) {
+        if (booking.getId() != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return bookingIngestService.submit(booking)
+                .<ResponseEntity<?>>map(trackingId -> ResponseEntity.accepted()
+                        .location(URI.create("/bookings/ingest/" + trackingId))
+                        .header("Preference-Applied", RESPOND_ASYNC)
+                        .body(IngestStatus.queued(trackingId)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createOrUpdateBatch(@RequestBody List<Booking> bookings) {
+        if (bookings.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(bookingBatchService.createOrUpdate(bookings));
+    }
+
+    // Same CSV layout as /export; all rows are merged in one transaction or none are
+    @PostMapping(path = "/import", consumes = CSV_VALUE)
+    public ResponseEntity<BookingImportResult> importBookings(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(bookingTransferService.importCsv(request.getInputStream()));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Booking> updateBooking(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                  @Valid @RequestBody Booking booking) {
-        return bookingService.update(id, booking)
-                .map(ResponseEntity::ok)
+        Optional<Long> expectedVersion = parseIfMatch(ifMatch);
+        if (ifMatch != null && expectedVersion.isEmpty() && !"*".equals(ifMatch.trim())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return bookingService.update(id, booking, expectedVersion.orElse(null))
+                .map(BookingController::okWithETag)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Void> changeStatus(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @Valid @RequestBody StatusUpdate statusUpdate) {
+        Optional<Long> expectedVersion = parseIfMatch(ifMatch);
+        if (ifMatch != null && expectedVersion.isEmpty() && !"*".equals(ifMatch.trim())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return switch (bookingService.changeStatus(id, statusUpdate.status(), expectedVersion.orElse(null))) {
+            case APPLIED -> expectedVersion
+                    .map(version -> ResponseEntity.noContent().eTag(String.valueOf(version + 1)).<Void>build())
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case INVALID_TRANSITION -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
+
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusResult> changeStatusAll(@Valid @RequestBody BulkStatusUpdate update) {
+        return ResponseEntity.ok(bookingService.changeStatusAll(update.ids(), update.status()));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBooking(@PathVariable Long id) {
         bookingService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Runs in chunks of booking.purge.chunk-size, each committed on its own
+    @DeleteMapping
+    public ResponseEntity<BulkDeleteResult> deleteBookings(
+            @RequestParam List<BookingStatus> status,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        return ResponseEntity.ok(new BulkDeleteResult(bookingPurgeService.deleteAll(status, before)));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    private static ResponseEntity<Booking> okWithETag(Booking booking) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (booking.getVersion() != null) {
+            ok.eTag(String.valueOf(booking.getVersion()));
+        }
+        return ok.body(booking);
+    }
+
+    private static ResponseEntity<BookingSummary> okWithETag(BookingSummary summary) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (summary.version() != null) {
+            ok.eTag(String.valueOf(summary.version()));
+        }
+        return ok.body(summary);
+    }
+
+    // Accepts 3, "3" and W/"3"; anything else, including *, carries no version
+    public static Optional<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Optional.of(Long.parseLong(tag));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void streamAll(BookingFields fields, Consumer<Object> consumer) {
+        if (fields == BookingFields.SUMMARY) {
+            bookingService.streamSummaries(consumer::accept);
+        } else {
+            bookingService.streamAll(consumer::accept);
+        }
+    }
+
+    private void write(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package eu.kaninis.booking_service.booking.controller;
+
+import eu.kaninis.booking_service.booking.model.SlotCapacity;
+import eu.kaninis.booking_service.booking.service.SlotAdmission;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/slots")
+public class SlotController {
+
+    private final SlotAdmission slotAdmission;
+
+    public SlotController(SlotAdmission slotAdmission) {
+        this.slotAdmission = slotAdmission;
+    }
+
+    @GetMapping("/{slotTime}")
+    public ResponseEntity<SlotCapacity> getSlot(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime slotTime) {
+        return slotAdmission.findSlot(slotTime)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{slotTime}")
+    public ResponseEntity<SlotCapacity> setCapacity(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime slotTime,
+            @RequestParam int capacity) {
+        if (capacity < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(slotAdmission.setCapacity(slotTime, capacity));
+    }
+}
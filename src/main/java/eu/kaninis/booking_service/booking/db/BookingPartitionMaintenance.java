@@ -0,0 +1,211 @@
+package eu.kaninis.booking_service.booking.db;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of {@code bookings} in step with the calendar. Months up to
+ * {@code months-ahead} get their own partition (rows already sitting in the default
+ * partition are moved over), and months older than {@code retain-months} are detached
+ * into {@code bookings_archive} or a gzipped CSV file. Each month runs in its own
+ * transaction under an advisory lock, so only one node does the work.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.partitions.enabled", havingValue = "true")
+public class BookingPartitionMaintenance {
+
+    public enum ArchiveMode { TABLE, FILE }
+
+    private static final Logger log = LoggerFactory.getLogger(BookingPartitionMaintenance.class);
+
+    private static final long ADVISORY_LOCK_KEY = 0x626f6f6b696e6773L;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("bookings_p(\\d{6})");
+    // Named rather than SELECT *: bookings_archive is not guaranteed to keep the column order of bookings
+    private static final String COLUMNS = "id, name, email, date_time, number_of_people, status, version, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retainMonths;
+    private final ArchiveMode archiveMode;
+    private final Path archiveDir;
+
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                       @Value("${booking.partitions.months-ahead:12}") int monthsAhead,
+                                       @Value("${booking.partitions.retain-months:12}") int retainMonths,
+                                       @Value("${booking.partitions.archive-mode:table}") ArchiveMode archiveMode,
+                                       @Value("${booking.partitions.archive-dir:archive}") Path archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retainMonths = retainMonths;
+        this.archiveMode = archiveMode;
+        this.archiveDir = archiveDir;
+    }
+
+    // Rows keep landing in the default partition until this works, so a failure must not stop the service
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance at startup failed; retrying on the next scheduled run", e);
+        }
+    }
+
+    /** Each month is its own unit of work; one that fails is logged and the rest still run. */
+    @Scheduled(cron = "${booking.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        TreeSet<YearMonth> existing = existingPartitions();
+
+        YearMonth first = oldestDefaultMonth();
+        if (first == null || first.isAfter(current)) {
+            first = current;
+        }
+        for (YearMonth month = first; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                YearMonth target = month;
+                withLock("create partition for " + target, () -> createPartition(target));
+            }
+        }
+
+        YearMonth cutoff = current.minusMonths(retainMonths);
+        for (YearMonth month : existingPartitions().headSet(cutoff)) {
+            withLock("archive partition for " + month, () -> archivePartition(month));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String table = partitionName(month);
+        if (tableExists(table)) {
+            return;
+        }
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        // A partition cannot be attached while the default partition still holds rows in its range
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE bookings INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM bookings_default WHERE date_time >= ? AND date_time < ? "
+                        + "RETURNING " + COLUMNS + ") "
+                        + "INSERT INTO " + table + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION " + table
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created partition {} ({} rows moved from default)", table, moved);
+    }
+
+    private void archivePartition(YearMonth month) {
+        String table = partitionName(month);
+        if (!tableExists(table)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + table);
+        long rows = switch (archiveMode) {
+            case TABLE -> jdbcTemplate.update("INSERT INTO bookings_archive (" + COLUMNS + ") "
+                    + "SELECT " + COLUMNS + " FROM " + table + " ON CONFLICT (id) DO NOTHING");
+            case FILE -> exportToFile(table);
+        };
+        jdbcTemplate.execute("DROP TABLE " + table);
+        log.info("Archived partition {} ({} rows, {})", table, rows, archiveMode);
+    }
+
+    // Runs on the transaction's connection, so a failed export rolls the detach back
+    private long exportToFile(String table) {
+        Path target = archiveDir.resolve(table + ".csv.gz");
+        Path partial = archiveDir.resolve(table + ".csv.gz.partial");
+        long rows = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                Files.createDirectories(archiveDir);
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                    return copyManager.copyOut("COPY " + table + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private void withLock(String task, Runnable work) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject(
+                        "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (Boolean.TRUE.equals(locked)) {
+                    work.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance failed to {}; rolled back", task, e);
+        }
+    }
+
+    private TreeSet<YearMonth> existingPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = 'bookings'",
+                String.class);
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.parse(matcher.group(1), SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    private YearMonth oldestDefaultMonth() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(date_time) FROM bookings_default", Timestamp.class);
+        return oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : null;
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    static String partitionName(YearMonth month) {
+        return "bookings_p" + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,55 @@
+package eu.kaninis.booking_service.booking.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "booking.db.admission.enabled", havingValue = "true")
+public class ConnectionAdmissionConfig {
+
+    @Bean
+    static BeanPostProcessor connectionAdmissionPostProcessor(
+            @Value("${booking.db.admission.permits:0}") int permits,
+            @Value("${booking.db.admission.timeout:30s}") Duration timeout) {
+        return new BeanPostProcessor() {
+            // Each pool gets its own gate, sized to the pool unless permits is set
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return new AdmissionControlledDataSource(pool, permits > 0 ? permits : pool.getMaximumPoolSize(),
+                            timeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /** Pool gauges come from Hikari itself; these show how many callers queue in front of it. */
+    @Bean
+    MeterBinder connectionAdmissionMetrics(Map<String, DataSource> dataSources) {
+        return registry -> dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof AdmissionControlledDataSource admission) {
+                Gauge.builder("booking.db.admission.available", admission,
+                                AdmissionControlledDataSource::getAvailablePermits)
+                        .description("Free connection admission permits")
+                        .tag("pool", name)
+                        .register(registry);
+                Gauge.builder("booking.db.admission.waiting", admission,
+                                AdmissionControlledDataSource::getQueueLength)
+                        .description("Threads waiting for a connection admission permit")
+                        .tag("pool", name)
+                        .register(registry);
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package eu.kaninis.booking_service.booking.db;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Sends connections for read-only transactions to the replica while it is within the
+ * allowed lag and has replayed the calling client's last write; everything else goes to
+ * the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction is only marked read-only after it has asked for its connection.
+ * <p>
+ * A thread can ask to hear the primary's WAL position after each of its write
+ * transactions commits. The position is read on the transaction's own connection, so
+ * the caller never holds one connection while waiting for another.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+    private static final ThreadLocal<LongConsumer> WRITE_COMMITTED = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /** Reads on this thread need a replica that has replayed at least {@code lsn}. */
+    public static void requireLsn(long lsn) {
+        REQUIRED_LSN.set(lsn);
+    }
+
+    public static void clearRequiredLsn() {
+        REQUIRED_LSN.remove();
+    }
+
+    /** Write transactions on this thread pass the primary's WAL position to {@code listener} once committed. */
+    public static void onWriteCommitted(LongConsumer listener) {
+        WRITE_COMMITTED.set(listener);
+    }
+
+    public static void clearWriteCommitted() {
+        WRITE_COMMITTED.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return listenForCommit(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return listenForCommit(super.getConnection(username, password));
+    }
+
+    // The proxy asks once per transaction, when the transaction first touches the database
+    private Connection listenForCommit(Connection connection) {
+        LongConsumer listener = WRITE_COMMITTED.get();
+        if (listener == null || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return connection;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long lsn;
+                try {
+                    lsn = lagMonitor.currentPrimaryLsn(connection);
+                } catch (SQLException e) {
+                    // The write has committed; without a position the client's reads fall back to lag-based routing
+                    logger.warn("Could not read the primary's WAL position after a write", e);
+                    return;
+                }
+                listener.accept(lsn);
+            }
+        });
+        return connection;
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        Long required = REQUIRED_LSN.get();
+        return lagMonitor.canServe(required != null ? required : 0L) ? Route.REPLICA : Route.PRIMARY;
+    }
+}
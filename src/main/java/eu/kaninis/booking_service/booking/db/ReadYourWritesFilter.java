@@ -0,0 +1,94 @@
+package eu.kaninis.booking_service.booking.db;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gives clients read-your-writes on top of replica routing. After a successful write the
+ * response carries a cookie with the primary's WAL position; later reads from the same
+ * client only use the replica once it has replayed that far. The position lives with the
+ * client, so it holds whichever node serves the next request.
+ * <p>
+ * The cookie is set as each write transaction commits, while the response is still
+ * unwritten, so responses stream as usual. A request that commits several times ends up
+ * with the position after its last commit.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "booking-wal";
+
+    private static final Set<String> SAFE_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Duration stickyWindow;
+
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long lastWrite = lastWrite(request);
+        if (lastWrite > 0) {
+            ReadWriteRoutingDataSource.requireLsn(lastWrite);
+        }
+        try {
+            if (!SAFE_METHODS.contains(request.getMethod())) {
+                ReadWriteRoutingDataSource.onWriteCommitted(lsn -> rememberWrite(response, Math.max(lastWrite, lsn)));
+            }
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.clearRequiredLsn();
+            ReadWriteRoutingDataSource.clearWriteCommitted();
+        }
+    }
+
+    private void rememberWrite(HttpServletResponse response, long lsn) {
+        if (response.isCommitted()) {
+            logger.debug("Response already committed; not recording the write's WAL position");
+            return;
+        }
+        // Replaces the cookie from an earlier commit in the same request, keeps all others
+        List<String> others = response.getHeaders(HttpHeaders.SET_COOKIE).stream()
+                .filter(value -> !value.startsWith(COOKIE + "="))
+                .toList();
+        response.setHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toHexString(lsn))
+                .path("/")
+                .maxAge(stickyWindow)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build()
+                .toString());
+        others.forEach(value -> response.addHeader(HttpHeaders.SET_COOKIE, value));
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseUnsignedLong(cookie.getValue(), 16);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
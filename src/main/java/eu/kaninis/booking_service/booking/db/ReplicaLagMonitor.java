@@ -0,0 +1,160 @@
+package eu.kaninis.booking_service.booking.db;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls how far the replica is behind the primary. Lag is measured in WAL bytes; when
+ * the replica is behind, the age of its last replayed transaction tells how stale it is.
+ * An idle primary therefore never makes the replica look stale. The replica is used only
+ * while that age stays within {@code maxLag} and the last probe succeeded less than
+ * {@value #STALE_PROBES} probe intervals ago. Probes run on their own thread, so
+ * long-running scheduled jobs cannot leave an old verdict in place.
+ */
+public class ReplicaLagMonitor implements MeterBinder, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final int STALE_PROBES = 3;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Duration probeInterval;
+
+    private volatile boolean usable;
+    private volatile long lastProbeNanos;
+    private ScheduledExecutorService prober;
+    private volatile long replayLsn = -1;
+    private volatile long lagBytes;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration probeInterval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.probeInterval = probeInterval;
+    }
+
+    /** Whether a read that must see {@code minimumLsn} can go to the replica. */
+    public boolean canServe(long minimumLsn) {
+        return isUsable() && replayLsn >= minimumLsn;
+    }
+
+    // A verdict nobody has refreshed lately says nothing about the replica now
+    boolean isUsable() {
+        return usable && System.nanoTime() - lastProbeNanos <= probeInterval.toNanos() * STALE_PROBES;
+    }
+
+    /** The primary's current WAL position; covers every transaction committed before the call. */
+    public long currentPrimaryLsn() {
+        return parseLsn(Objects.requireNonNull(
+                primary.queryForObject("select pg_current_wal_lsn()::text", String.class)));
+    }
+
+    /** The same, read on a connection to the primary the caller already holds. */
+    public long currentPrimaryLsn(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select pg_current_wal_lsn()::text")) {
+            rs.next();
+            return parseLsn(rs.getString(1));
+        }
+    }
+
+    /** How long a row read from the replica can lag behind a commit, at most. */
+    public Duration maxStaleness() {
+        return maxLag.plus(probeInterval.multipliedBy(STALE_PROBES + 1));
+    }
+
+    @Override
+    public void start() {
+        prober = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("booking-replica-probe").daemon().factory());
+        prober.scheduleWithFixedDelay(this::probe, 0, probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (prober != null) {
+            prober.shutdownNow();
+            prober = null;
+        }
+        usable = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return prober != null;
+    }
+
+    public void probe() {
+        boolean wasUsable = isUsable();
+        try {
+            // Primary first: a replica that replays further in between only looks more current
+            long primaryLsn = currentPrimaryLsn();
+            replica.query("""
+                    select pg_is_in_recovery(), pg_last_wal_replay_lsn()::text,
+                           extract(epoch from now() - pg_last_xact_replay_timestamp())
+                    """, rs -> {
+                String replayed = rs.getString(2);
+                if (!rs.getBoolean(1) || replayed == null) {
+                    throw new IllegalStateException("Replica is not replaying WAL from the primary");
+                }
+                long lsn = parseLsn(replayed);
+                lagBytes = Math.max(0, primaryLsn - lsn);
+                lagSeconds = lagBytes == 0 ? 0 : rs.getDouble(3);
+                replayLsn = lsn;
+            });
+            lastProbeNanos = System.nanoTime();
+            usable = lagSeconds <= maxLag.toMillis() / 1000.0;
+            if (wasUsable && !usable) {
+                log.warn("Replica is {}s ({} bytes) behind, reading from the primary", lagSeconds, lagBytes);
+            }
+        } catch (RuntimeException e) {
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica probe failed, reading from the primary", e);
+            }
+        }
+        if (!wasUsable && usable) {
+            log.info("Replica caught up, serving read-only transactions from it");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.db.replica.lag.bytes", this, monitor -> monitor.lagBytes)
+                .description("WAL bytes the replica has not replayed yet")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("booking.db.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Age of the replica's last replayed transaction while it is behind")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("booking.db.replica.usable", this, monitor -> monitor.isUsable() ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(registry);
+    }
+
+    // "16/B374D848" is the high and low 32 bits in hex
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+}
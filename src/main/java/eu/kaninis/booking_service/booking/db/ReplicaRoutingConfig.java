@@ -0,0 +1,74 @@
+package eu.kaninis.booking_service.booking.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the single pool with a primary and a replica pool. The application's
+ * {@code DataSource} routes each transaction when it first touches the database:
+ * {@code @Transactional(readOnly = true)} work goes to the replica, the rest to the
+ * primary. Both pools keep their own Hikari metrics and connection admission.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.db.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("booking.db.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                       @Value("${booking.db.replica.url}") String url,
+                                       @Value("${booking.db.replica.username:${spring.datasource.username}}") String username,
+                                       @Value("${booking.db.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                        @Qualifier("replicaDataSource") DataSource replica,
+                                        @Value("${booking.db.replica.max-lag:1s}") Duration maxLag,
+                                        @Value("${booking.db.replica.probe-interval:250ms}") Duration probeInterval) {
+        return new ReplicaLagMonitor(primary, replica, maxLag, probeInterval);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaLagMonitor lagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, lagMonitor));
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(@Value("${booking.db.replica.sticky-window:10s}") Duration stickyWindow) {
+        return new ReadYourWritesFilter(stickyWindow);
+    }
+}
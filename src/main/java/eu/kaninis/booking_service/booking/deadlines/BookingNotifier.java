@@ -0,0 +1,12 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+
+/**
+ * Sends a booking's reminder. Called after the reminder is recorded as sent, so a
+ * failure here is logged and not retried.
+ */
+public interface BookingNotifier {
+
+    void remind(Booking booking);
+}
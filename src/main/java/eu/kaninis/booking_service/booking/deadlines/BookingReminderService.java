@@ -0,0 +1,63 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingReminder;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingReminderRepository;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Claims reminders in {@code booking_reminders}. The bookings are locked with SKIP LOCKED
+ * while the claim is written, so two nodes that overlap during a lease handover cannot
+ * both claim one booking.
+ */
+@Service
+public class BookingReminderService {
+
+    static final Set<BookingStatus> REMINDABLE = EnumSet.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+
+    private final BookingRepository bookingRepository;
+    private final BookingReminderRepository reminderRepository;
+
+    public BookingReminderService(BookingRepository bookingRepository, BookingReminderRepository reminderRepository) {
+        this.bookingRepository = bookingRepository;
+        this.reminderRepository = reminderRepository;
+    }
+
+    /**
+     * Records a reminder for those of {@code ids} that are not cancelled, not yet reminded
+     * and have their slot after {@code slotsAfter} and no later than {@code slotsUntil},
+     * and returns them. A booking moved to a later slot is left for its new reminder time.
+     */
+    @Transactional
+    public List<Booking> claim(Collection<Long> ids, LocalDateTime slotsAfter, LocalDateTime slotsUntil,
+                               Instant now) {
+        List<Booking> bookings = bookingRepository.lockRemindable(ids, REMINDABLE, slotsAfter, slotsUntil);
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+        Set<Long> reminded = new HashSet<>(reminderRepository.findRemindedIds(ids));
+        List<Booking> claimed = bookings.stream()
+                .filter(booking -> !reminded.contains(booking.getId()))
+                .toList();
+        reminderRepository.saveAll(claimed.stream()
+                .map(booking -> new BookingReminder(booking.getId(), booking.getDateTime(), now))
+                .toList());
+        return claimed;
+    }
+
+    // Past slots are outside every reminder window, so their rows are no longer needed
+    public int purge(LocalDateTime slotsBefore) {
+        return reminderRepository.deleteSlotsBefore(slotsBefore);
+    }
+}
@@ -0,0 +1,271 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingDeadline;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.SchedulerLeaseRepository;
+import eu.kaninis.booking_service.booking.service.BookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Expires PENDING bookings {@code hold-time} after they were created and sends reminders
+ * {@code reminder-lead} before their slot. The node holding the {@code booking-deadlines}
+ * lease loads the deadlines due within {@code horizon} every {@code load-interval}, with
+ * index range scans, into a {@link TimingWheel} that one thread advances every
+ * {@code tick}. Each firing re-checks the booking under a row lock, so a booking that
+ * changed in the meantime, or that another node got to during a handover, is left alone.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.deadlines.enabled", havingValue = "true")
+public class DeadlineScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineScheduler.class);
+    private static final String LEASE = "booking-deadlines";
+
+    enum Kind { EXPIRE, REMIND }
+
+    // The due time is part of the key, so a reminder whose slot moved earlier is scheduled again
+    record Deadline(Kind kind, long bookingId, long dueMillis) {
+    }
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final BookingReminderService reminderService;
+    private final BookingNotifier notifier;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Lease lease;
+    private final Duration holdTime;
+    private final Duration reminderLead;
+    private final Duration tick;
+    private final Duration loadInterval;
+    private final Duration horizon;
+    private final int loadLimit;
+    private final int batchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final TimingWheel<Deadline> wheel;
+    private final Set<Deadline> scheduled = new HashSet<>();
+    private final List<Deadline> overdue = new ArrayList<>();
+    private boolean leader;
+    private long nextLoad;
+    private volatile boolean running;
+    private Thread thread;
+
+    public DeadlineScheduler(BookingService bookingService, BookingRepository bookingRepository,
+                             BookingReminderService reminderService, BookingNotifier notifier,
+                             SchedulerLeaseRepository leaseRepository, ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${booking.deadlines.hold-time:15m}") Duration holdTime,
+                             @Value("${booking.deadlines.reminder-lead:24h}") Duration reminderLead,
+                             @Value("${booking.deadlines.tick:1s}") Duration tick,
+                             @Value("${booking.deadlines.wheel-slots:512}") int wheelSlots,
+                             @Value("${booking.deadlines.load-interval:30s}") Duration loadInterval,
+                             @Value("${booking.deadlines.horizon:2m}") Duration horizon,
+                             @Value("${booking.deadlines.load-limit:10000}") int loadLimit,
+                             @Value("${booking.deadlines.batch-size:500}") int batchSize,
+                             @Value("${booking.deadlines.lease-ttl:90s}") Duration leaseTtl) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.reminderService = reminderService;
+        this.notifier = notifier;
+        this.meterRegistry = meterRegistry;
+        this.lease = new Lease(leaseRepository, LEASE, UUID.randomUUID().toString(), leaseTtl);
+        this.holdTime = holdTime;
+        this.reminderLead = reminderLead;
+        this.tick = tick;
+        this.loadInterval = loadInterval;
+        this.horizon = horizon;
+        this.loadLimit = loadLimit;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tick, wheelSlots, System.currentTimeMillis());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("booking-deadlines").daemon().start(this::loop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current == null) {
+            return;
+        }
+        current.interrupt();
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (leader) {
+                lease.release(Instant.now());
+                leader = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Renews the lease, loads the coming window and fires what is due, as the scheduler
+     * thread does every {@code load-interval}. Returns how many deadlines fired.
+     */
+    public synchronized int runNow() {
+        long now = System.currentTimeMillis();
+        refresh(now);
+        return fire(now);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                synchronized (this) {
+                    long now = System.currentTimeMillis();
+                    if (now - nextLoad >= 0) {
+                        refresh(now);
+                    }
+                    fire(now);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Booking deadline run failed", e);
+            }
+            LockSupport.parkNanos(tick.toNanos());
+            if (Thread.interrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void refresh(long now) {
+        nextLoad = now + loadInterval.toMillis();
+        boolean wasLeader = leader;
+        leader = lease.renew(Instant.ofEpochMilli(now));
+        if (leader != wasLeader) {
+            log.info("Booking deadlines lease {} by {}", leader ? "acquired" : "lost", lease.owner());
+        }
+        if (!leader) {
+            wheel.clear();
+            scheduled.clear();
+            overdue.clear();
+            return;
+        }
+        load(now);
+    }
+
+    private void load(long now) {
+        LocalDateTime current = toLocal(now);
+        LocalDateTime until = current.plus(horizon);
+        PageRequest limit = PageRequest.ofSize(loadLimit);
+        for (BookingDeadline pending : bookingRepository.findCreatedBefore(BookingStatus.PENDING,
+                until.minus(holdTime), limit)) {
+            schedule(Kind.EXPIRE, pending.bookingId(), pending.time().plus(holdTime), now);
+        }
+        // Slots from now on whose reminder falls within the window, including late bookings
+        for (BookingDeadline slot : bookingRepository.findUnremindedBetween(current, until.plus(reminderLead),
+                BookingReminderService.REMINDABLE, limit)) {
+            schedule(Kind.REMIND, slot.bookingId(), slot.time().minus(reminderLead), now);
+        }
+        reminderService.purge(current);
+    }
+
+    private void schedule(Kind kind, long bookingId, LocalDateTime due, long now) {
+        long dueMillis = due.atZone(zone).toInstant().toEpochMilli();
+        Deadline deadline = new Deadline(kind, bookingId, dueMillis);
+        if (!scheduled.add(deadline)) {
+            return;
+        }
+        if (dueMillis <= now) {
+            overdue.add(deadline);
+        } else {
+            wheel.add(dueMillis, deadline);
+        }
+    }
+
+    private int fire(long now) {
+        if (!leader) {
+            return 0;
+        }
+        List<Deadline> due = new ArrayList<>(overdue);
+        overdue.clear();
+        due.addAll(wheel.advance(now));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        due.forEach(scheduled::remove);
+        List<Long> expiring = ids(due, Kind.EXPIRE);
+        List<Long> reminding = ids(due, Kind.REMIND);
+        // Expiry first, so a hold that runs out is not reminded as well
+        LocalDateTime current = toLocal(now);
+        LocalDateTime createdBefore = current.minus(holdTime);
+        int expired = 0;
+        for (List<Long> chunk : chunks(expiring)) {
+            expired += bookingService.expire(chunk, createdBefore).size();
+        }
+        int reminded = 0;
+        for (List<Long> chunk : chunks(reminding)) {
+            for (Booking booking : reminderService.claim(chunk, current, current.plus(reminderLead),
+                    Instant.ofEpochMilli(now))) {
+                try {
+                    notifier.remind(booking);
+                    reminded++;
+                } catch (RuntimeException e) {
+                    log.warn("Reminder for booking {} could not be sent", booking.getId(), e);
+                }
+            }
+        }
+        int expiredCount = expired;
+        int remindedCount = reminded;
+        meterRegistry.ifAvailable(registry -> {
+            registry.counter("booking.deadlines.fired", "kind", "expire").increment(expiredCount);
+            registry.counter("booking.deadlines.fired", "kind", "remind").increment(remindedCount);
+        });
+        log.debug("Booking deadlines fired: {} expired, {} reminded, {} still scheduled", expired, reminded,
+                wheel.size());
+        return due.size();
+    }
+
+    private LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    private static List<Long> ids(List<Deadline> deadlines, Kind kind) {
+        return deadlines.stream()
+                .filter(deadline -> deadline.kind() == kind)
+                .map(Deadline::bookingId)
+                .distinct()
+                .toList();
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return chunks;
+    }
+}
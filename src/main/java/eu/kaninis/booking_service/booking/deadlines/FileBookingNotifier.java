@@ -0,0 +1,48 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.Booking;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Appends reminders as NDJSON to a local file, one line per reminder.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.deadlines.notifier", havingValue = "file")
+public class FileBookingNotifier implements BookingNotifier {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileBookingNotifier(@Value("${booking.deadlines.notifier-file:booking-reminders.ndjson}") Path file,
+                               ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void remind(Booking booking) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(objectMapper.writeValueAsString(Map.of(
+                    "bookingId", booking.getId(),
+                    "email", booking.getEmail(),
+                    "dateTime", booking.getDateTime(),
+                    "numberOfPeople", booking.getNumberOfPeople())));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
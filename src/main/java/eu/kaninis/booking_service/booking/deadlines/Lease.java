@@ -0,0 +1,55 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import eu.kaninis.booking_service.booking.model.SchedulerLease;
+import eu.kaninis.booking_service.booking.repository.SchedulerLeaseRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A row in {@code scheduler_leases} that one node holds at a time. The holder renews it
+ * well within {@code ttl}; once it stops, another node takes over when the lease runs
+ * out. Node clocks have to agree to well within the ttl.
+ */
+class Lease {
+
+    private final SchedulerLeaseRepository repository;
+    private final String name;
+    private final String owner;
+    private final Duration ttl;
+
+    Lease(SchedulerLeaseRepository repository, String name, String owner, Duration ttl) {
+        this.repository = repository;
+        this.name = name;
+        this.owner = owner;
+        this.ttl = ttl;
+    }
+
+    /** Extends or takes the lease; false while another node holds it. */
+    boolean renew(Instant now) {
+        Instant expiresAt = now.plus(ttl);
+        if (repository.renew(name, owner, now, expiresAt) > 0) {
+            return true;
+        }
+        if (repository.existsById(name)) {
+            return false;
+        }
+        try {
+            repository.saveAndFlush(new SchedulerLease(name, owner, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another node created it first
+            return false;
+        }
+    }
+
+    /** Lets another node take over at once instead of after the ttl. */
+    void release(Instant now) {
+        repository.release(name, owner, now);
+    }
+
+    String owner() {
+        return owner;
+    }
+}
@@ -0,0 +1,23 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs reminders. The default, standing in for mail or SMS.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.deadlines.notifier", havingValue = "log", matchIfMissing = true)
+public class LogBookingNotifier implements BookingNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(LogBookingNotifier.class);
+
+    @Override
+    public void remind(Booking booking) {
+        log.info("Reminder for booking {} at {} ({} people)", booking.getId(), booking.getDateTime(),
+                booking.getNumberOfPeople());
+    }
+}
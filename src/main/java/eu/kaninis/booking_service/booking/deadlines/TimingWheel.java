@@ -0,0 +1,80 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: {@code slots} buckets, each covering one {@code tick}. An entry goes
+ * into the bucket its deadline hashes to, together with the absolute tick it is due at,
+ * so one bucket holds entries several turns apart. {@link #advance} visits only the
+ * buckets passed since the previous call, which keeps adding and expiring O(1) per entry
+ * however many are pending. Deadlines are rounded down to a tick. Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private record Entry<T>(long tick, T item) {
+    }
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> buckets;
+    private long nextTick;
+    private int size;
+
+    TimingWheel(Duration tick, int slots, long nowMillis) {
+        if (tick.toMillis() < 1 || slots < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms and slots at least 1");
+        }
+        this.tickMillis = tick.toMillis();
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.nextTick = nowMillis / tickMillis;
+    }
+
+    /** Schedules {@code item}; a deadline already passed fires on the next {@link #advance}. */
+    void add(long deadlineMillis, T item) {
+        long tick = Math.max(deadlineMillis / tickMillis, nextTick);
+        bucket(tick).add(new Entry<>(tick, item));
+        size++;
+    }
+
+    /** Removes and returns every item due at or before {@code nowMillis}. */
+    List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        if (target < nextTick) {
+            return due;
+        }
+        // After a long pause every bucket is visited once rather than once per missed turn
+        long last = Math.min(target, nextTick + buckets.size() - 1);
+        for (long tick = nextTick; tick <= last; tick++) {
+            Iterator<Entry<T>> entries = bucket(tick).iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.tick() <= target) {
+                    due.add(entry.item());
+                    entries.remove();
+                }
+            }
+        }
+        size -= due.size();
+        nextTick = target + 1;
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        buckets.forEach(List::clear);
+        size = 0;
+    }
+
+    private List<Entry<T>> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+}
@@ -0,0 +1,58 @@
+package eu.kaninis.booking_service.booking.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingEventType;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import eu.kaninis.booking_service.booking.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Writes booking changes to the outbox. Must run inside the transaction that makes the
+ * change, so the event exists if and only if the change committed.
+ */
+@Component
+public class BookingEventRecorder {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public BookingEventRecorder(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Booking booking) {
+        record(BookingEventType.CREATED, booking.getId(), booking);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updated(Booking booking) {
+        record(BookingEventType.UPDATED, booking.getId(), booking);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Long bookingId, BookingStatus status) {
+        record(BookingEventType.STATUS_CHANGED, bookingId, Map.of("id", bookingId, "status", status));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long bookingId) {
+        record(BookingEventType.DELETED, bookingId, Map.of("id", bookingId));
+    }
+
+    private void record(BookingEventType type, Long bookingId, Object payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(type, bookingId, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + type + " event for booking " + bookingId, e);
+        }
+    }
+}
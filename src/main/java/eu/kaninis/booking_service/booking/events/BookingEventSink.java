@@ -0,0 +1,14 @@
+package eu.kaninis.booking_service.booking.events;
+
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxRelay} delivers drained outbox events. Called inside the relay's
+ * transaction; throwing leaves the batch unpublished so it is retried.
+ */
+public interface BookingEventSink {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,241 @@
+package eu.kaninis.booking_service.booking.events;
+
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import eu.kaninis.booking_service.booking.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent events for booking changes. Every node tails the outbox table itself, so a
+ * subscriber sees changes made through any node, not just the one it is connected to.
+ * <p>
+ * The tail follows {@code published_at}, not the id. Ids come from per-node sequence
+ * blocks and transactions commit out of id order, so an id watermark skips events. The
+ * relay stamps {@code published_at} just before its short transaction commits, so it
+ * trails commit order by at most that transaction plus the clock skew between nodes.
+ * Each poll re-reads the last {@code gap-window} and drops the ids it already sent.
+ * <p>
+ * Every subscriber has its own queue and sender thread, so a slow client only holds up
+ * itself. A client that falls {@code queue-size} events behind is disconnected and can
+ * resume with {@code Last-Event-ID}. Delivery is at-least-once: a resume repeats the
+ * events published within the gap window before the client's last one.
+ */
+@Component
+public class BookingEventStream {
+
+    private static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(30);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Duration gapWindow;
+    private final int queueSize;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("booking-events-", 0).factory());
+
+    private final ReentrantLock tailLock = new ReentrantLock();
+    // Guarded by tailLock; null while nobody listens
+    private Instant watermark;
+    private final Map<Long, Instant> sent = new HashMap<>();
+
+    public BookingEventStream(OutboxEventRepository outboxEventRepository,
+                              @Value("${booking.events.stream.gap-window:5s}") Duration gapWindow,
+                              @Value("${booking.events.stream.queue-size:10000}") int queueSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.gapWindow = gapWindow;
+        this.queueSize = queueSize;
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        startTail();
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        // Registered before the replay is read, so nothing published in between is lost
+        subscribers.add(subscriber);
+        subscriber.sender = senders.submit(subscriber::run);
+        if (lastEventId != null) {
+            subscriber.replay(outboxEventRepository.findById(lastEventId)
+                    .filter(event -> event.getPublishedAt() != null)
+                    .map(last -> outboxEventRepository.findPublishedSince(last.getPublishedAt().minus(gapWindow)))
+                    .orElse(List.of()), lastEventId);
+        } else {
+            subscriber.replay(List.of(), null);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.events.stream.interval-ms:250}")
+    public void poll() {
+        tailLock.lock();
+        try {
+            if (subscribers.isEmpty()) {
+                // Nobody listening: stop tailing and start again from now on the next subscribe
+                watermark = null;
+                sent.clear();
+                return;
+            }
+            if (watermark == null) {
+                return;
+            }
+            Instant since = watermark.minus(gapWindow);
+            List<OutboxEvent> fresh = new ArrayList<>();
+            for (OutboxEvent event : outboxEventRepository.findPublishedSince(since)) {
+                if (sent.putIfAbsent(event.getId(), event.getPublishedAt()) == null) {
+                    fresh.add(event);
+                }
+                if (event.getPublishedAt().isAfter(watermark)) {
+                    watermark = event.getPublishedAt();
+                }
+            }
+            Instant horizon = watermark.minus(gapWindow);
+            sent.values().removeIf(publishedAt -> publishedAt.isBefore(horizon));
+            if (!fresh.isEmpty()) {
+                subscribers.forEach(subscriber -> subscriber.offer(fresh));
+            }
+        } finally {
+            tailLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    // Events already in the window when the tail starts are history, not news
+    private void startTail() {
+        tailLock.lock();
+        try {
+            if (watermark != null) {
+                return;
+            }
+            watermark = Instant.now();
+            for (OutboxEvent event : outboxEventRepository.findPublishedSince(watermark.minus(gapWindow))) {
+                sent.put(event.getId(), event.getPublishedAt());
+                if (event.getPublishedAt().isAfter(watermark)) {
+                    watermark = event.getPublishedAt();
+                }
+            }
+        } finally {
+            tailLock.unlock();
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        Future<?> sender = subscriber.sender;
+        if (sender != null) {
+            sender.cancel(true);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<OutboxEvent> queue = new LinkedBlockingQueue<>(queueSize);
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock; live events wait here until the replay is queued ahead of them
+        private List<OutboxEvent> held = new ArrayList<>();
+        private volatile Future<?> sender;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void replay(List<OutboxEvent> events, Long skipId) {
+            lock.lock();
+            try {
+                Set<Long> replayed = new HashSet<>();
+                for (OutboxEvent event : events) {
+                    if (!event.getId().equals(skipId) && replayed.add(event.getId()) && !enqueue(event)) {
+                        return;
+                    }
+                }
+                for (OutboxEvent event : held) {
+                    if (!replayed.contains(event.getId()) && !enqueue(event)) {
+                        return;
+                    }
+                }
+                held = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void offer(List<OutboxEvent> events) {
+            lock.lock();
+            try {
+                if (held != null) {
+                    held.addAll(events);
+                    return;
+                }
+                for (OutboxEvent event : events) {
+                    if (!enqueue(event)) {
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean enqueue(OutboxEvent event) {
+            if (queue.offer(event)) {
+                return true;
+            }
+            // Too far behind to catch up from memory; the client resumes from Last-Event-ID
+            close(this);
+            emitter.complete();
+            return false;
+        }
+
+        void run() {
+            try {
+                while (true) {
+                    if (!send(queue.take())) {
+                        close(this);
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private boolean send(OutboxEvent event) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getId()))
+                        .name(event.getType().name())
+                        .data(event.getPayload(), MediaType.APPLICATION_JSON));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
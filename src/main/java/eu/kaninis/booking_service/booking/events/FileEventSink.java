@@ -0,0 +1,52 @@
+package eu.kaninis.booking_service.booking.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends events as NDJSON to a local file, one line per event.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.events.sink", havingValue = "file")
+public class FileEventSink implements BookingEventSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileEventSink(@Value("${booking.events.file:booking-events.ndjson}") Path file,
+                         ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(Map.of(
+                        "id", event.getId(),
+                        "bookingId", event.getBookingId(),
+                        "type", event.getType(),
+                        "createdAt", event.getCreatedAt(),
+                        "payload", objectMapper.readTree(event.getPayload()))));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
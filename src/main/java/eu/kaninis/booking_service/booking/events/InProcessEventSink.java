@@ -0,0 +1,29 @@
+package eu.kaninis.booking_service.booking.events;
+
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Hands events to in-process listeners. The default sink, and the one tests use.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.events.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessEventSink implements BookingEventSink {
+
+    private final List<Consumer<List<OutboxEvent>>> listeners = new CopyOnWriteArrayList<>();
+
+    public Runnable subscribe(Consumer<List<OutboxEvent>> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        listeners.forEach(listener -> listener.accept(events));
+    }
+}
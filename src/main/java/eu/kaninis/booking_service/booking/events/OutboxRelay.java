@@ -0,0 +1,69 @@
+package eu.kaninis.booking_service.booking.events;
+
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import eu.kaninis.booking_service.booking.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Drains unpublished outbox rows to the {@link BookingEventSink} in batches and marks
+ * them published. Delivery is at-least-once: a batch the sink accepted may be sent
+ * again if the node dies before the mark commits.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.events.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookingEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, BookingEventSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${booking.events.relay.batch-size:500}") int batchSize,
+                       @Value("${booking.events.retention:1h}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.events.relay.interval-ms:500}")
+    public int drain() {
+        int total = 0;
+        int drained;
+        do {
+            drained = transactionTemplate.execute(status -> drainBatch());
+            total += drained;
+        } while (drained == batchSize);
+        return total;
+    }
+
+    // Published rows stay around for a while so SSE subscribers can resume from Last-Event-ID
+    @Scheduled(fixedDelayString = "${booking.events.purge-interval-ms:60000}")
+    public int purge() {
+        return outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention));
+    }
+
+    private int drainBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublished(PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        sink.publish(batch);
+        outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), Instant.now());
+        return batch.size();
+    }
+}
@@ -0,0 +1,12 @@
+package eu.kaninis.booking_service.booking.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyRequestInProgressException extends RuntimeException {
+
+    public IdempotencyRequestInProgressException(String key) {
+        super("A request with Idempotency-Key " + key + " is still being processed");
+    }
+}
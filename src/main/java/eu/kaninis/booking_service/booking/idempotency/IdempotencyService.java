@@ -0,0 +1,249 @@
+package eu.kaninis.booking_service.booking.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.kaninis.booking_service.booking.model.IdempotencyRecord;
+import eu.kaninis.booking_service.booking.model.IdempotencyState;
+import eu.kaninis.booking_service.booking.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays its response for duplicates.
+ * Completed responses are kept in a bounded local cache and in {@code idempotency_keys},
+ * which every node shares. A duplicate that arrives while the first request is still
+ * running waits for it: on the same node through an in-flight future, on other nodes by
+ * polling the claimed row. A claim whose owner stalls past {@code stale-after} can be taken
+ * over; the claim's {@code createdAt} is its token, and only the current holder of the token
+ * may run the action, complete the key or release it. A key is forgotten once its
+ * {@code ttl} has passed, even before the purge deletes its row.
+ */
+@Service
+public class IdempotencyService {
+
+    private record InFlight(String fingerprint, CompletableFuture<IdempotentResponse> response) {
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final Duration staleAfter;
+    private final Cache<String, IdempotencyState> recent;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${booking.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${booking.idempotency.local-size:10000}") long localSize,
+                              @Value("${booking.idempotency.local-ttl:10m}") Duration localTtl,
+                              @Value("${booking.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${booking.idempotency.poll-interval:50ms}") Duration pollInterval,
+                              @Value("${booking.idempotency.stale-after:60s}") Duration staleAfter) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.staleAfter = staleAfter;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(localSize)
+                .expireAfterWrite(localTtl.compareTo(ttl) < 0 ? localTtl : ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used for the same request, in which
+     * case the stored response is returned with {@link IdempotentResponse#replayed()} set.
+     * The action and the stored response commit in one transaction. Failed actions are not
+     * remembered, so the client can retry them with the same key.
+     */
+    public IdempotentResponse execute(String key, Object request, Supplier<ResponseEntity<?>> action) {
+        String fingerprint = fingerprint(request);
+
+        IdempotencyState cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return replay(cached, fingerprint, key);
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (!running.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return await(key, running.response()).asReplay();
+        }
+        try {
+            IdempotentResponse response = executeClaimed(key, fingerprint, action);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval-ms:600000}")
+    public int purgeExpired() {
+        return repository.deleteExpired(Instant.now());
+    }
+
+    private IdempotentResponse executeClaimed(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        Instant claim;
+        while ((claim = tryClaim(key, fingerprint)) == null) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IdempotencyRequestInProgressException(key);
+            }
+            Optional<IdempotencyState> existing = repository.findState(key, now());
+            if (existing.isEmpty()) {
+                // The owner failed and released the key, or the row expired; claim it again
+                repository.deleteIfExpired(key, now());
+                continue;
+            }
+            IdempotencyState state = existing.get();
+            if (state.completed()) {
+                recent.put(key, state);
+                return replay(state, fingerprint, key);
+            }
+            if (!state.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            Instant now = now();
+            if (state.createdAt().isBefore(now.minus(staleAfter))
+                    && repository.takeOver(key, state.createdAt(), now) > 0) {
+                claim = now;
+                break;
+            }
+            sleep(pollInterval);
+        }
+
+        Instant claimedAt = claim;
+        IdempotentResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                // Held until commit, so a takeover waits for this request instead of running it again
+                if (repository.lockClaim(key, claimedAt).isEmpty()) {
+                    throw new IdempotencyRequestInProgressException(key);
+                }
+                IdempotentResponse result = toResponse(action.get());
+                if (repository.complete(key, claimedAt, result.status(), result.etag(), result.body()) == 0) {
+                    throw new IdempotencyRequestInProgressException(key);
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            repository.release(key, claimedAt);
+            throw e;
+        }
+        recent.put(key, new IdempotencyState(fingerprint, response.status(), response.etag(), response.body(),
+                Instant.now()));
+        return response;
+    }
+
+    /** Returns the claim's token, its {@code createdAt}, or {@code null} if the key is taken. */
+    private Instant tryClaim(String key, String fingerprint) {
+        Instant now = now();
+        try {
+            // Own transaction so the claim is visible to duplicates on other nodes right away
+            newTransactionTemplate.executeWithoutResult(status ->
+                    repository.saveAndFlush(new IdempotencyRecord(key, fingerprint, now, now.plus(ttl))));
+            return now;
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    // Truncated to what the column stores, so a claim token compares equal after the round trip
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private IdempotentResponse await(String key, CompletableFuture<IdempotentResponse> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyRequestInProgressException(key);
+        } catch (ExecutionException e) {
+            // The first request failed; the duplicate gets the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyRequestInProgressException(key);
+        }
+    }
+
+    private IdempotentResponse replay(IdempotencyState state, String fingerprint, String key) {
+        if (!state.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        return new IdempotentResponse(state.statusCode(), state.etag(), state.body(), true);
+    }
+
+    private IdempotentResponse toResponse(ResponseEntity<?> entity) {
+        try {
+            String body = entity.hasBody() ? objectMapper.writeValueAsString(entity.getBody()) : null;
+            return new IdempotentResponse(entity.getStatusCode().value(),
+                    entity.getHeaders().getFirst(HttpHeaders.ETAG), body, false);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an idempotent request", e);
+        }
+    }
+}
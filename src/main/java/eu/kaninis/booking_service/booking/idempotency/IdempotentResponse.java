@@ -0,0 +1,9 @@
+package eu.kaninis.booking_service.booking.idempotency;
+
+/** A response as it was first sent, kept so duplicates of the request get the same answer. */
+public record IdempotentResponse(int status, String etag, String body, boolean replayed) {
+
+    IdempotentResponse asReplay() {
+        return new IdempotentResponse(status, etag, body, true);
+    }
+}
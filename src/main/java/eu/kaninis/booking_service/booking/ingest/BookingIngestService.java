@@ -0,0 +1,299 @@
+package eu.kaninis.booking_service.booking.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.BatchItemResult;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.IngestResult;
+import eu.kaninis.booking_service.booking.repository.IngestResultRepository;
+import eu.kaninis.booking_service.booking.service.BookingBatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind path for {@code POST /bookings} with {@code Prefer: respond-async}.
+ * Accepted requests are appended to a local spill log and put on a bounded lock-free
+ * queue. A single writer thread drains the queue in micro-batches through
+ * {@link BookingBatchService}, so each batch becomes one multi-row insert. Each item's
+ * outcome is stored with the batch in {@code booking_ingest_results}. On startup,
+ * spilled requests without a stored outcome are written before new ones are accepted.
+ */
+@Service
+public class BookingIngestService implements SmartLifecycle {
+
+    private record Pending(UUID trackingId, Booking booking, IngestSpillLog.Segment segment) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BookingIngestService.class);
+
+    private final BookingBatchService bookingBatchService;
+    private final IngestResultRepository ingestResultRepository;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration retryBackoff;
+    private final Duration resultRetention;
+    private final IngestSpillLog spillLog;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public BookingIngestService(BookingBatchService bookingBatchService, IngestResultRepository ingestResultRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${booking.ingest.enabled:false}") boolean enabled,
+                                @Value("${booking.ingest.queue-capacity:10000}") int capacity,
+                                @Value("${booking.ingest.batch-size:500}") int batchSize,
+                                @Value("${booking.ingest.retry-backoff:1s}") Duration retryBackoff,
+                                @Value("${booking.ingest.result-retention:1h}") Duration resultRetention,
+                                @Value("${booking.ingest.spill.dir:ingest-spill}") Path spillDir,
+                                @Value("${booking.ingest.spill.segment-records:10000}") int segmentRecords,
+                                @Value("${booking.ingest.spill.fsync:true}") boolean fsync) {
+        this.bookingBatchService = bookingBatchService;
+        this.ingestResultRepository = ingestResultRepository;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.retryBackoff = retryBackoff;
+        this.resultRetention = resultRetention;
+        this.spillLog = new IngestSpillLog(spillDir, objectMapper, segmentRecords, fsync);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues {@code booking} for creation and returns its tracking id, or empty when the
+     * queue is full and the caller should back off.
+     *
+     * @throws IngestUnavailableException when the pipeline is stopped or shutting down
+     */
+    public Optional<UUID> submit(Booking booking) {
+        if (!running) {
+            throw new IngestUnavailableException();
+        }
+        int size;
+        do {
+            size = queued.get();
+            if (size >= capacity) {
+                return Optional.empty();
+            }
+        } while (!queued.compareAndSet(size, size + 1));
+
+        UUID trackingId = UUID.randomUUID();
+        IngestSpillLog.Segment segment;
+        try {
+            segment = spillLog.append(new IngestSpillLog.Entry(trackingId, booking));
+        } catch (IOException e) {
+            queued.decrementAndGet();
+            throw new UncheckedIOException(e);
+        }
+        inFlight.add(trackingId);
+        queue.offer(new Pending(trackingId, booking, segment));
+        LockSupport.unpark(writer);
+        return Optional.of(trackingId);
+    }
+
+    // Not read-only, so it reads the primary: the outcome may have committed a moment ago
+    @Transactional
+    public Optional<IngestStatus> status(UUID trackingId) {
+        if (inFlight.contains(trackingId)) {
+            return Optional.of(IngestStatus.queued(trackingId));
+        }
+        return ingestResultRepository.findById(trackingId)
+                .map(result -> IngestStatus.of(trackingId, result.getOutcome(), result.getBookingId()));
+    }
+
+    /** Waits until everything accepted so far has been written. Meant for tests and benchmarks. */
+    public boolean awaitDrained(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!inFlight.isEmpty()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.ingest.purge-interval-ms:600000}")
+    public int purgeResults() {
+        return ingestResultRepository.deleteCompletedBefore(Instant.now().minus(resultRetention));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("booking-ingest").daemon().start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            spillLog.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void recover() throws IOException {
+        List<IngestSpillLog.Entry> spilled = spillLog.recover();
+        for (int from = 0; from < spilled.size(); from += batchSize) {
+            List<IngestSpillLog.Entry> chunk = spilled.subList(from, Math.min(from + batchSize, spilled.size()));
+            Set<UUID> done = new HashSet<>(ingestResultRepository.findExistingIds(
+                    chunk.stream().map(IngestSpillLog.Entry::trackingId).toList()));
+            List<Pending> remaining = chunk.stream()
+                    .filter(entry -> !done.contains(entry.trackingId()))
+                    .map(entry -> new Pending(entry.trackingId(), entry.booking(), null))
+                    .toList();
+            if (!remaining.isEmpty()) {
+                write(remaining);
+            }
+        }
+        spillLog.discardRecovered();
+        if (!spilled.isEmpty()) {
+            log.info("Recovered {} spilled booking requests", spilled.size());
+        }
+    }
+
+    // Drains whatever has accumulated: batches grow with load and stay small when idle
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            Pending next = queue.poll();
+            if (next != null) {
+                batch.add(next);
+                queued.decrementAndGet();
+                if (batch.size() < batchSize) {
+                    continue;
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeWithRetry(batch);
+                batch = new ArrayList<>(batchSize);
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+        }
+    }
+
+    // Keeps retrying while the database is unavailable; on shutdown the spill log still has the batch
+    private void writeWithRetry(List<Pending> batch) {
+        List<Pending> remaining = batch;
+        while (true) {
+            try {
+                write(remaining);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Writing {} queued bookings failed, retrying in {}", remaining.size(), retryBackoff, e);
+                LockSupport.parkNanos(retryBackoff.toNanos());
+                try {
+                    remaining = withoutCommitted(remaining);
+                } catch (RuntimeException stillDown) {
+                    // Checked again on the next attempt
+                }
+                if (remaining.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // A batch larger than one chunk may have partly committed before the failure
+    private List<Pending> withoutCommitted(List<Pending> batch) {
+        Set<UUID> done = new HashSet<>(ingestResultRepository.findExistingIds(
+                batch.stream().map(Pending::trackingId).toList()));
+        List<Pending> remaining = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (done.contains(pending.trackingId())) {
+                completed(pending);
+            } else {
+                remaining.add(pending);
+            }
+        }
+        return remaining;
+    }
+
+    private void write(List<Pending> batch) {
+        // Fresh entities per attempt: a rolled-back attempt leaves ids and versions on the ones it used
+        List<Booking> bookings = batch.stream().map(pending -> copyOf(pending.booking())).toList();
+        List<BatchItemResult> results = bookingBatchService.createOrUpdate(bookings, chunkResults ->
+                ingestResultRepository.saveAll(chunkResults.stream()
+                        .map(result -> toIngestResult(batch, result))
+                        .toList()));
+        // Invalid items never reach a chunk transaction; replaying them would fail the same way
+        List<IngestResult> invalid = results.stream()
+                .filter(result -> result.outcome() == BatchItemResult.Outcome.INVALID)
+                .map(result -> toIngestResult(batch, result))
+                .toList();
+        if (!invalid.isEmpty()) {
+            ingestResultRepository.saveAll(invalid);
+        }
+        batch.forEach(this::completed);
+    }
+
+    private void completed(Pending pending) {
+        inFlight.remove(pending.trackingId());
+        if (pending.segment() != null) {
+            pending.segment().committed();
+        }
+    }
+
+    private static Booking copyOf(Booking booking) {
+        return new Booking(booking.getName(), booking.getEmail(), booking.getDateTime(),
+                booking.getNumberOfPeople(), booking.getStatus());
+    }
+
+    private static IngestResult toIngestResult(List<Pending> batch, BatchItemResult result) {
+        return new IngestResult(batch.get(result.index()).trackingId(), result.outcome(), result.id(), Instant.now());
+    }
+}
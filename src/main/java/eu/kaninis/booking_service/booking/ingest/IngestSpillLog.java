@@ -0,0 +1,232 @@
+package eu.kaninis.booking_service.booking.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.Booking;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only NDJSON log of accepted async creates, written before the client gets its
+ * 202. Records go into numbered segments; a segment is deleted once it is sealed and
+ * every record in it has been committed to the database.
+ * <p>
+ * With {@code fsync} on, appends are group-committed: each caller writes its line under
+ * a short lock, then one of the callers waiting for durability forces the file for
+ * everyone whose line was written by then. A burst pays one fsync per group rather than
+ * one per request, and the locks are {@link ReentrantLock}s so virtual threads waiting
+ * on the fsync do not pin their carriers.
+ */
+final class IngestSpillLog implements AutoCloseable {
+
+    record Entry(UUID trackingId, Booking booking) {
+    }
+
+    static final class Segment {
+
+        private final Path file;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean sealed;
+        private int records;
+
+        private Segment(Path file) {
+            this.file = file;
+        }
+
+        void committed() {
+            if (outstanding.decrementAndGet() == 0 && sealed) {
+                delete();
+            }
+        }
+
+        private void seal() {
+            sealed = true;
+            if (outstanding.get() == 0) {
+                delete();
+            }
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final String PREFIX = "ingest-";
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int segmentRecords;
+    private final boolean fsync;
+    // Guarded by writeLock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private long nextSegment;
+    private Segment segment;
+    private FileChannel channel;
+    private long written;
+
+    // Guarded by syncLock; the highest record number known to be on disk
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private long synced;
+
+    IngestSpillLog(Path directory, ObjectMapper objectMapper, int segmentRecords, boolean fsync) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.segmentRecords = segmentRecords;
+        this.fsync = fsync;
+    }
+
+    /** Reads every record left behind by a previous run. Torn trailing lines are skipped. */
+    List<Entry> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : segmentFiles()) {
+            nextSegment = Math.max(nextSegment, segmentNumber(file) + 1);
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        entries.add(objectMapper.readValue(line, Entry.class));
+                    } catch (JsonProcessingException e) {
+                        // Incomplete write at crash time; the client never got a 202 for it
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /** Deletes the segments returned by {@link #recover()} once their records are committed. */
+    void discardRecovered() throws IOException {
+        for (Path file : segmentFiles()) {
+            if (segmentNumber(file) < nextSegment) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    Segment append(Entry entry) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        Segment target;
+        long record;
+        writeLock.lock();
+        try {
+            if (segment == null || segment.records >= segmentRecords) {
+                roll();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            target = segment;
+            target.records++;
+            target.outstanding.incrementAndGet();
+            record = ++written;
+        } finally {
+            writeLock.unlock();
+        }
+        if (fsync) {
+            awaitSynced(record);
+        }
+        return target;
+    }
+
+    // Whoever gets the lock forces everything written so far; callers queued behind it
+    // usually find their record already covered
+    private void awaitSynced(long record) throws IOException {
+        syncLock.lock();
+        try {
+            if (synced >= record) {
+                return;
+            }
+            FileChannel current;
+            long upTo;
+            writeLock.lock();
+            try {
+                current = channel;
+                upTo = written;
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                if (current != null) {
+                    current.force(false);
+                }
+            } catch (ClosedChannelException e) {
+                // Rolled over or closed meanwhile; both force the file before closing it
+            }
+            synced = upTo;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // A late append after close opens a new segment, which the next start recovers
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel != null) {
+                if (fsync) {
+                    channel.force(false);
+                }
+                channel.close();
+                channel = null;
+                segment = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        Segment previous = segment;
+        if (channel != null) {
+            if (fsync) {
+                channel.force(false);
+            }
+            channel.close();
+        }
+        segment = new Segment(directory.resolve(PREFIX + String.format("%012d", nextSegment++) + SUFFIX));
+        channel = FileChannel.open(segment.file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (previous != null) {
+            previous.seal();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,23 @@
+package eu.kaninis.booking_service.booking.ingest;
+
+import eu.kaninis.booking_service.booking.model.BatchItemResult;
+
+import java.util.UUID;
+
+public record IngestStatus(UUID trackingId, State state, Long bookingId) {
+
+    public enum State {
+        QUEUED,
+        CREATED,
+        INVALID,
+        SLOT_FULL
+    }
+
+    public static IngestStatus queued(UUID trackingId) {
+        return new IngestStatus(trackingId, State.QUEUED, null);
+    }
+
+    static IngestStatus of(UUID trackingId, BatchItemResult.Outcome outcome, Long bookingId) {
+        return new IngestStatus(trackingId, State.valueOf(outcome.name()), bookingId);
+    }
+}
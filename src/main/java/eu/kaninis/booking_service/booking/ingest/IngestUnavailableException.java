@@ -0,0 +1,12 @@
+package eu.kaninis.booking_service.booking.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestUnavailableException extends RuntimeException {
+
+    public IngestUnavailableException() {
+        super("Async ingestion is not running");
+    }
+}
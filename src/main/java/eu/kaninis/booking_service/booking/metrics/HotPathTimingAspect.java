@@ -0,0 +1,69 @@
+package eu.kaninis.booking_service.booking.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every service method ({@code booking.service}) and every repository call
+ * ({@code booking.repository}), tagged by class, method and exception.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "booking.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class HotPathTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    // Looking a timer up in the registry on every call costs more than the timing itself
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    private record TimerKey(String name, String className, String method, String exception) {
+    }
+
+    public HotPathTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * eu.kaninis.booking_service.booking.service.*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("booking.service", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Inherited methods are declared on CrudRepository & co; tag with our interface instead
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), proxyClass -> {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : proxyClass.getSimpleName();
+        });
+        return time("booking.repository", repository, joinPoint);
+    }
+
+    private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(
+                    new TimerKey(name, className, joinPoint.getSignature().getName(), exception),
+                    key -> Timer.builder(key.name())
+                            .tag("class", key.className())
+                            .tag("method", key.method())
+                            .tag("exception", key.exception())
+                            .register(meterRegistry)));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Availability of one slot: capacity, seats still free, and seats and bookings per status.
+ */
+public record Availability(LocalDateTime slotTime, int capacity, int available,
+                           Map<BookingStatus, Integer> seats, Map<BookingStatus, Integer> bookings) {
+}
@@ -0,0 +1,25 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a batch write, in the order the items were submitted.
+ */
+public record BatchItemResult(int index, Outcome outcome, Long id, List<String> errors) {
+
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        INVALID,
+        NOT_FOUND,
+        SLOT_FULL
+    }
+
+    public static BatchItemResult of(int index, Outcome outcome, Long id) {
+        return new BatchItemResult(index, outcome, id, List.of());
+    }
+
+    public static BatchItemResult invalid(int index, List<String> errors) {
+        return new BatchItemResult(index, Outcome.INVALID, null, errors);
+    }
+}
@@ -1,5 +1,6 @@
 package eu.kaninis.booking_service.booking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
@@ -9,11 +10,16 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_date_time_status", columnList = "date_time, status"),
+        @Index(name = "idx_bookings_email", columnList = "email")
+})
 public class Booking {
 
+    // Pooled sequence so Hibernate can assign ids up front and batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -33,6 +39,13 @@ public class Booking {
     @NotNull
     private BookingStatus status = BookingStatus.PENDING;
 
+    @Version
+    private Long version;
+
+    // Set on insert; a PENDING booking expires booking.deadlines.hold-time after it
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
     // Constructors
     public Booking() {
     }
@@ -90,4 +103,20 @@ public class Booking {
     public void setStatus(BookingStatus status) {
         this.status = status;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
 }
\ No newline at end of file
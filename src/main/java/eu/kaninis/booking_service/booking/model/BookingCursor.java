@@ -0,0 +1,45 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Keyset position in the (dateTime, id) ordering of bookings, exchanged with
+ * clients as an opaque URL-safe token.
+ */
+public record BookingCursor(LocalDateTime dateTime, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getDateTime(), booking.getId());
+    }
+
+    public static BookingCursor of(BookingSummary summary) {
+        return new BookingCursor(summary.dateTime(), summary.id());
+    }
+
+    public String encode() {
+        String raw = dateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Optional<BookingCursor> decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new BookingCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking id with the time a deadline is computed from: its creation for expiry of a
+ * PENDING hold, its slot for a reminder.
+ */
+public record BookingDeadline(Long bookingId, LocalDateTime time) {
+}
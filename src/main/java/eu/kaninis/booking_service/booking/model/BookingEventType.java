@@ -0,0 +1,8 @@
+package eu.kaninis.booking_service.booking.model;
+
+public enum BookingEventType {
+    CREATED,
+    UPDATED,
+    STATUS_CHANGED,
+    DELETED
+}
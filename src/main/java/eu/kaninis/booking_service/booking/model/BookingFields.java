@@ -0,0 +1,20 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Representations selectable with {@code ?fields=}: the full booking or a {@link BookingSummary}.
+ */
+public enum BookingFields {
+    FULL,
+    SUMMARY;
+
+    public static Optional<BookingFields> parse(String value) {
+        try {
+            return Optional.of(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
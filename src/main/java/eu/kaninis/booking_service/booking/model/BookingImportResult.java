@@ -0,0 +1,8 @@
+package eu.kaninis.booking_service.booking.model;
+
+/**
+ * Outcome of a CSV import: rows without an id were inserted, rows whose id exists were
+ * updated or found unchanged, and rows with an unknown id were skipped.
+ */
+public record BookingImportResult(long inserted, long updated, long unchanged, long skipped) {
+}
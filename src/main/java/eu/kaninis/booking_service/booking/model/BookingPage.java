@@ -0,0 +1,9 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of bookings. {@code nextCursor} is {@code null} on the last page.
+ */
+public record BookingPage(List<Booking> items, String nextCursor) {
+}
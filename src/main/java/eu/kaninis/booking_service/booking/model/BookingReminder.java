@@ -0,0 +1,65 @@
+package eu.kaninis.booking_service.booking.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Marks a booking as reminded. Written in the transaction that claims the reminder, so
+ * each booking is reminded once whichever node gets to it.
+ */
+@Entity
+@Table(name = "booking_reminders", indexes = {
+        @Index(name = "idx_booking_reminders_slot_time", columnList = "slot_time")
+})
+public class BookingReminder implements Persistable<Long> {
+
+    @Id
+    private Long bookingId;
+
+    @Column(nullable = false)
+    private LocalDateTime slotTime;
+
+    @Column(nullable = false)
+    private Instant sentAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    protected BookingReminder() {
+    }
+
+    public BookingReminder(Long bookingId, LocalDateTime slotTime, Instant sentAt) {
+        this.bookingId = bookingId;
+        this.slotTime = slotTime;
+        this.sentAt = sentAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Getters
+    @Override
+    public Long getId() {
+        return bookingId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public LocalDateTime getSlotTime() {
+        return slotTime;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+}
@@ -0,0 +1,11 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Search filters; {@code null} or empty means "not filtered". {@code from} is
+ * inclusive and {@code to} exclusive.
+ */
+public record BookingSearch(LocalDateTime from, LocalDateTime to, List<BookingStatus> statuses, String email) {
+}
@@ -1,7 +1,22 @@
 package eu.kaninis.booking_service.booking.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     PENDING,
     CONFIRMED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Statuses a booking may move to this one from: PENDING → CONFIRMED, and
+     * PENDING/CONFIRMED → CANCELLED. CANCELLED is terminal.
+     */
+    public Set<BookingStatus> allowedSources() {
+        return switch (this) {
+            case PENDING -> EnumSet.noneOf(BookingStatus.class);
+            case CONFIRMED -> EnumSet.of(PENDING);
+            case CANCELLED -> EnumSet.of(PENDING, CONFIRMED);
+        };
+    }
 }
@@ -0,0 +1,16 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The parts of a booking that list and polling clients need, selected straight into
+ * this record so no entity is loaded or tracked. {@code version} is the booking's ETag.
+ */
+public record BookingSummary(Long id, LocalDateTime dateTime, BookingStatus status, int numberOfPeople,
+                             Long version) {
+
+    public static BookingSummary of(Booking booking) {
+        return new BookingSummary(booking.getId(), booking.getDateTime(), booking.getStatus(),
+                booking.getNumberOfPeople(), booking.getVersion());
+    }
+}
@@ -0,0 +1,9 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of {@link BookingSummary} rows. {@code nextCursor} is {@code null} on the last page.
+ */
+public record BookingSummaryPage(List<BookingSummary> items, String nextCursor) {
+}
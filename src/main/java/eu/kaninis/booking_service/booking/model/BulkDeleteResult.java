@@ -0,0 +1,7 @@
+package eu.kaninis.booking_service.booking.model;
+
+/**
+ * Number of bookings a bulk delete removed.
+ */
+public record BulkDeleteResult(int deleted) {
+}
@@ -0,0 +1,10 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.util.List;
+
+/**
+ * Ids that moved to the requested status, and ids that did not because they are
+ * missing or not in an allowed source status.
+ */
+public record BulkStatusResult(List<Long> applied, List<Long> skipped) {
+}
@@ -0,0 +1,10 @@
+package eu.kaninis.booking_service.booking.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkStatusUpdate(@NotEmpty @Size(max = 1000) List<Long> ids, @NotNull BookingStatus status) {
+}
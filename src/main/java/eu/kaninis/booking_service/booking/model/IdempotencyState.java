@@ -0,0 +1,10 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.Instant;
+
+public record IdempotencyState(String fingerprint, Integer statusCode, String etag, String body, Instant createdAt) {
+
+    public boolean completed() {
+        return statusCode != null;
+    }
+}
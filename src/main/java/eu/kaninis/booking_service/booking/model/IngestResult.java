@@ -0,0 +1,73 @@
+package eu.kaninis.booking_service.booking.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outcome of an asynchronously ingested booking, written in the same transaction as the
+ * booking itself so a replayed spill file can tell which requests already landed.
+ */
+@Entity
+@Table(name = "booking_ingest_results", indexes = {
+        @Index(name = "idx_booking_ingest_results_completed_at", columnList = "completed_at")
+})
+public class IngestResult implements Persistable<UUID> {
+
+    @Id
+    private UUID trackingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BatchItemResult.Outcome outcome;
+
+    private Long bookingId;
+
+    @Column(nullable = false)
+    private Instant completedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    protected IngestResult() {
+    }
+
+    public IngestResult(UUID trackingId, BatchItemResult.Outcome outcome, Long bookingId, Instant completedAt) {
+        this.trackingId = trackingId;
+        this.outcome = outcome;
+        this.bookingId = bookingId;
+        this.completedAt = completedAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Getters
+    @Override
+    public UUID getId() {
+        return trackingId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public BatchItemResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
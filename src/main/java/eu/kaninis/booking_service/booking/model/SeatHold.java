@@ -0,0 +1,9 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The seats one booking holds in its slot, read without loading the entity.
+ */
+public record SeatHold(Long bookingId, LocalDateTime slotTime, int seats, BookingStatus status) {
+}
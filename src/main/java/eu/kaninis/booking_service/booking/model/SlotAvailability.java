@@ -0,0 +1,112 @@
+package eu.kaninis.booking_service.booking.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Seats and bookings per slot and status, kept up to date by every booking write so
+ * availability never has to scan {@code bookings}.
+ */
+@Entity
+@Table(name = "slot_availability")
+@IdClass(SlotAvailability.Key.class)
+public class SlotAvailability implements Persistable<SlotAvailability.Key> {
+
+    public static class Key implements Serializable, Comparable<Key> {
+
+        private LocalDateTime slotTime;
+        private BookingStatus status;
+
+        protected Key() {
+        }
+
+        public Key(LocalDateTime slotTime, BookingStatus status) {
+            this.slotTime = slotTime;
+            this.status = status;
+        }
+
+        public LocalDateTime getSlotTime() {
+            return slotTime;
+        }
+
+        public BookingStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int bySlot = slotTime.compareTo(other.slotTime);
+            return bySlot != 0 ? bySlot : status.compareTo(other.status);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && slotTime.equals(other.slotTime) && status == other.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(slotTime, status);
+        }
+    }
+
+    @Id
+    private LocalDateTime slotTime;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    private int seats;
+
+    private int bookings;
+
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    protected SlotAvailability() {
+    }
+
+    public SlotAvailability(LocalDateTime slotTime, BookingStatus status) {
+        this.slotTime = slotTime;
+        this.status = status;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    // Getters
+    @Override
+    public Key getId() {
+        return new Key(slotTime, status);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public LocalDateTime getSlotTime() {
+        return slotTime;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public int getBookings() {
+        return bookings;
+    }
+}
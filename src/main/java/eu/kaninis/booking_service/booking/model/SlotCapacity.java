@@ -0,0 +1,48 @@
+package eu.kaninis.booking_service.booking.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.Min;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "slot_capacity")
+public class SlotCapacity {
+
+    @Id
+    private LocalDateTime slotTime;
+
+    @Min(0)
+    private int capacity;
+
+    @Min(0)
+    private int reserved;
+
+    // Constructors
+    public SlotCapacity() {
+    }
+
+    public SlotCapacity(LocalDateTime slotTime, int capacity) {
+        this.slotTime = slotTime;
+        this.capacity = capacity;
+    }
+
+    // Getters
+    public LocalDateTime getSlotTime() {
+        return slotTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public int getAvailable() {
+        return Math.max(0, capacity - reserved);
+    }
+}
@@ -0,0 +1,9 @@
+package eu.kaninis.booking_service.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One booking's slot, seats, status and version, read without loading the entity.
+ */
+public record StatusSnapshot(Long bookingId, LocalDateTime slotTime, int seats, BookingStatus status, long version) {
+}
@@ -0,0 +1,6 @@
+package eu.kaninis.booking_service.booking.model;
+
+import jakarta.validation.constraints.NotNull;
+
+public record StatusUpdate(@NotNull BookingStatus status) {
+}
@@ -0,0 +1,62 @@
+package eu.kaninis.booking_service.booking.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds concurrent requests and sheds load when they start to queue, in the spirit of
+ * CoDel: if even the shortest wait for a slot during an {@code interval} exceeded
+ * {@code target}, a standing queue has formed and callers give up after {@code target}
+ * instead of {@code maxWait}. That lets the queue drain; once a caller gets a slot
+ * within the target again, normal waiting resumes.
+ */
+final class LoadShedder {
+
+    private final Semaphore slots;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final long maxWaitNanos;
+
+    private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong minWaitInInterval = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean overloaded;
+
+    LoadShedder(int maxConcurrent, Duration target, Duration interval, Duration maxWait) {
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /** Waits for a slot; false means the request should be rejected. Call {@link #exit()} after a true. */
+    boolean tryEnter() throws InterruptedException {
+        long start = System.nanoTime();
+        boolean entered = slots.tryAcquire() || slots.tryAcquire(overloaded ? targetNanos : maxWaitNanos,
+                TimeUnit.NANOSECONDS);
+        long now = System.nanoTime();
+        record(now - start, now);
+        return entered;
+    }
+
+    void exit() {
+        slots.release();
+    }
+
+    boolean isOverloaded() {
+        return overloaded;
+    }
+
+    int queueLength() {
+        return slots.getQueueLength();
+    }
+
+    private void record(long wait, long now) {
+        minWaitInInterval.accumulateAndGet(wait, Math::min);
+        long started = intervalStart.get();
+        if (now - started >= intervalNanos && intervalStart.compareAndSet(started, now)) {
+            overloaded = minWaitInInterval.getAndSet(Long.MAX_VALUE) > targetNanos;
+        }
+    }
+}
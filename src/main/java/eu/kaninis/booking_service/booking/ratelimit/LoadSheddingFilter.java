@@ -0,0 +1,101 @@
+package eu.kaninis.booking_service.booking.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Answers 503 right away when requests queue for longer than the service can absorb,
+ * instead of letting every caller wait into a timeout. Runs after the rate limiter, so
+ * clients over their budget never take a slot. A request holds its slot only while its
+ * thread is in the filter chain; event streams release it once subscribed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "booking.load-shedding.enabled", havingValue = "true")
+public class LoadSheddingFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final List<String> paths;
+    private final LoadShedder shedder;
+    private volatile MeterRegistry registry;
+
+    public LoadSheddingFilter(@Value("${booking.load-shedding.paths:/bookings,/availability}") List<String> paths,
+                              @Value("${booking.load-shedding.max-concurrent:64}") int maxConcurrent,
+                              @Value("${booking.load-shedding.target-queue-delay:50ms}") Duration target,
+                              @Value("${booking.load-shedding.interval:100ms}") Duration interval,
+                              @Value("${booking.load-shedding.max-queue-delay:2s}") Duration maxWait) {
+        this.paths = paths;
+        this.shedder = new LoadShedder(maxConcurrent, target, interval, maxWait);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return paths.stream().noneMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean entered;
+        try {
+            entered = shedder.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            rejected(request);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            shedder.exit();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("booking.http.shedding", shedder, s -> s.isOverloaded() ? 1 : 0)
+                .description("Whether requests are being shed because they queue too long")
+                .register(registry);
+        Gauge.builder("booking.http.queued", shedder, LoadShedder::queueLength)
+                .description("Requests waiting for a load shedder slot")
+                .register(registry);
+    }
+
+    private void rejected(HttpServletRequest request) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+            Counter.builder("booking.http.rejected")
+                    .description("Requests turned away before reaching a controller")
+                    .tag("reason", "overload")
+                    .tag("budget", write ? "write" : "read")
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package eu.kaninis.booking_service.booking.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.kaninis.booking_service.booking.warmup.WarmupRequests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-client token buckets in front of the API, with separate budgets for reads and
+ * writes. A client is its {@code X-Api-Key} when that is one of the configured
+ * {@code api-keys}, otherwise its address: an unknown key would let a caller open a
+ * fresh bucket per request just by changing the header. Buckets
+ * of clients that have been idle for {@code idle-timeout} are dropped (by then they
+ * would have refilled anyway), and at most {@code max-clients} are kept.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "booking.rate-limit.enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String API_KEY = "X-Api-Key";
+
+    private record BucketKey(String client, boolean write) {
+    }
+
+    private final List<String> paths;
+    private final Set<String> apiKeys;
+    private final TokenBucket.Budget readBudget;
+    private final TokenBucket.Budget writeBudget;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private volatile MeterRegistry registry;
+
+    public RateLimitFilter(@Value("${booking.rate-limit.paths:/bookings,/availability}") List<String> paths,
+                           @Value("${booking.rate-limit.api-keys:}") List<String> apiKeys,
+                           @Value("${booking.rate-limit.read.per-second:200}") double readPerSecond,
+                           @Value("${booking.rate-limit.read.burst:400}") int readBurst,
+                           @Value("${booking.rate-limit.write.per-second:50}") double writePerSecond,
+                           @Value("${booking.rate-limit.write.burst:100}") int writeBurst,
+                           @Value("${booking.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${booking.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.paths = paths;
+        this.apiKeys = apiKeys.stream()
+                .map(String::strip)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.readBudget = TokenBucket.Budget.of(readPerSecond, readBurst);
+        this.writeBudget = TokenBucket.Budget.of(writePerSecond, writeBurst);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    // The node's own warm-up is not a client and would only spend its budget on 429s
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return paths.stream().noneMatch(uri::startsWith) || WarmupRequests.isWarmup(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+        TokenBucket bucket = buckets.get(new BucketKey(clientOf(request), write), key -> new TokenBucket());
+        long wait = bucket.tryTake(write ? writeBudget : readBudget, System.nanoTime());
+        if (wait > 0) {
+            rejected(write);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            long seconds = TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("booking.http.rate-limit.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently kept for clients")
+                .register(registry);
+    }
+
+    // Behind nginx the address is the client's one, see server.forward-headers-strategy
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void rejected(boolean write) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            Counter.builder("booking.http.rejected")
+                    .description("Requests turned away before reaching a controller")
+                    .tag("reason", "rate-limit")
+                    .tag("budget", write ? "write" : "read")
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
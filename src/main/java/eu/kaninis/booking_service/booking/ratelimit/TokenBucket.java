@@ -0,0 +1,37 @@
+package eu.kaninis.booking_service.booking.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (the generic cell rate algorithm): the time at
+ * which the bucket would be full again. Taking a token is one compare-and-set, so
+ * concurrent requests from the same client never block each other.
+ */
+final class TokenBucket {
+
+    /** Refill rate and capacity, both expressed in nanoseconds. */
+    record Budget(long emissionIntervalNanos, long burstToleranceNanos) {
+
+        static Budget of(double perSecond, int burst) {
+            long interval = (long) (1_000_000_000L / perSecond);
+            return new Budget(interval, interval * burst);
+        }
+    }
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /** Takes a token and returns 0, or returns how many nanoseconds until one is available. */
+    long tryTake(Budget budget, long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + budget.emissionIntervalNanos();
+            long wait = next - budget.burstToleranceNanos() - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
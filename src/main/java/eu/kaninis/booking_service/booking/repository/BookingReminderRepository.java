@@ -0,0 +1,23 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.BookingReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingReminderRepository extends JpaRepository<BookingReminder, Long> {
+
+    @Query("select r.bookingId from BookingReminder r where r.bookingId in :ids")
+    List<Long> findRemindedIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from BookingReminder r where r.slotTime < :before")
+    int deleteSlotsBefore(@Param("before") LocalDateTime before);
+}
@@ -1,7 +1,192 @@
 package eu.kaninis.booking_service.booking.repository;
 
 import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingDeadline;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+import eu.kaninis.booking_service.booking.model.SeatHold;
+import eu.kaninis.booking_service.booking.model.StatusSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
+
+    @Query("select b from Booking b order by b.dateTime, b.id")
+    List<Booking> findFirstPage(Pageable pageable);
+
+    @Query("""
+            select b from Booking b
+            where b.dateTime > :dateTime or (b.dateTime = :dateTime and b.id > :id)
+            order by b.dateTime, b.id
+            """)
+    List<Booking> findPageAfter(@Param("dateTime") LocalDateTime dateTime,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    // Must be consumed inside a transaction so PostgreSQL keeps a server-side cursor open
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Booking b order by b.id")
+    Stream<Booking> streamAll();
+
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.BookingSummary(
+                b.id, b.dateTime, b.status, b.numberOfPeople, b.version)
+            from Booking b order by b.dateTime, b.id
+            """)
+    List<BookingSummary> findFirstSummaryPage(Pageable pageable);
+
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.BookingSummary(
+                b.id, b.dateTime, b.status, b.numberOfPeople, b.version)
+            from Booking b
+            where b.dateTime > :dateTime or (b.dateTime = :dateTime and b.id > :id)
+            order by b.dateTime, b.id
+            """)
+    List<BookingSummary> findSummaryPageAfter(@Param("dateTime") LocalDateTime dateTime,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+
+    // Rows go straight into records: nothing is added to the persistence context
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.BookingSummary(
+                b.id, b.dateTime, b.status, b.numberOfPeople, b.version)
+            from Booking b order by b.id
+            """)
+    Stream<BookingSummary> streamSummaries();
+
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.StatusSnapshot(
+                b.id, b.dateTime, b.numberOfPeople, b.status, b.version)
+            from Booking b where b.id = :id
+            """)
+    Optional<StatusSnapshot> findStatusSnapshot(@Param("id") Long id);
+
+    // Status change without loading the entity; 0 rows means the booking changed or went away since that version
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Booking b set b.status = :status, b.version = b.version + 1
+            where b.id = :id and b.version = :version
+            """)
+    int updateStatusAtVersion(@Param("id") Long id,
+                              @Param("version") long version,
+                              @Param("status") BookingStatus status);
+
+    @Query("select distinct b.dateTime from Booking b where b.id in :ids")
+    List<LocalDateTime> findSlotTimes(@Param("ids") Collection<Long> ids);
+
+    // Locks the rows that can move so their seats are released exactly once; only in slots the caller holds
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.SeatHold(
+                b.id, b.dateTime, b.numberOfPeople, b.status)
+            from Booking b where b.id in :ids and b.status in :from and b.dateTime in :slotTimes
+            """)
+    List<SeatHold> lockSeatHolds(@Param("ids") Collection<Long> ids,
+                                 @Param("from") Collection<BookingStatus> from,
+                                 @Param("slotTimes") Collection<LocalDateTime> slotTimes);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 where b.id in :ids")
+    int updateStatusForIds(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
+    // Oldest rows first, unlocked; lockDeletable takes the rows once their slots are held
+    @Query("""
+            select b.id from Booking b where b.status in :statuses and b.dateTime < :before
+            order by b.dateTime, b.id
+            """)
+    List<Long> findDeletableIds(@Param("statuses") Collection<BookingStatus> statuses,
+                                @Param("before") LocalDateTime before,
+                                Pageable pageable);
+
+    // SKIP LOCKED (-2) leaves rows a writer holds for a later chunk
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.SeatHold(
+                b.id, b.dateTime, b.numberOfPeople, b.status)
+            from Booking b
+            where b.id in :ids and b.status in :statuses and b.dateTime < :before and b.dateTime in :slotTimes
+            order by b.dateTime, b.id
+            """)
+    List<SeatHold> lockDeletable(@Param("ids") Collection<Long> ids,
+                                 @Param("statuses") Collection<BookingStatus> statuses,
+                                 @Param("before") LocalDateTime before,
+                                 @Param("slotTimes") Collection<LocalDateTime> slotTimes);
+
+    // Served by the partial index on created_at of PENDING rows
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.BookingDeadline(b.id, b.createdAt)
+            from Booking b where b.status = :status and b.createdAt < :createdBefore
+            order by b.createdAt
+            """)
+    List<BookingDeadline> findCreatedBefore(@Param("status") BookingStatus status,
+                                            @Param("createdBefore") LocalDateTime createdBefore,
+                                            Pageable pageable);
+
+    // A date_time range, so only the partitions of the window are read
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.BookingDeadline(b.id, b.dateTime)
+            from Booking b
+            where b.dateTime >= :from and b.dateTime < :until and b.status in :statuses
+              and not exists (select r.bookingId from BookingReminder r where r.bookingId = b.id)
+            order by b.dateTime, b.id
+            """)
+    List<BookingDeadline> findUnremindedBetween(@Param("from") LocalDateTime from,
+                                                @Param("until") LocalDateTime until,
+                                                @Param("statuses") Collection<BookingStatus> statuses,
+                                                Pageable pageable);
+
+    // Rows still in their hold; SKIP LOCKED (-2) leaves ones a writer holds for the next load
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.SeatHold(
+                b.id, b.dateTime, b.numberOfPeople, b.status)
+            from Booking b
+            where b.id in :ids and b.status = :status and b.createdAt <= :createdBefore and b.dateTime in :slotTimes
+            """)
+    List<SeatHold> lockExpirable(@Param("ids") Collection<Long> ids,
+                                 @Param("status") BookingStatus status,
+                                 @Param("createdBefore") LocalDateTime createdBefore,
+                                 @Param("slotTimes") Collection<LocalDateTime> slotTimes);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            select b from Booking b
+            where b.id in :ids and b.status in :statuses and b.dateTime > :from and b.dateTime <= :until
+            """)
+    List<Booking> lockRemindable(@Param("ids") Collection<Long> ids,
+                                 @Param("statuses") Collection<BookingStatus> statuses,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("until") LocalDateTime until);
+
+    // The date bound lets PostgreSQL skip partitions that cannot hold any of the ids
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Booking b where b.id in :ids and b.dateTime < :before")
+    int deleteByIdsBefore(@Param("ids") Collection<Long> ids, @Param("before") LocalDateTime before);
 }
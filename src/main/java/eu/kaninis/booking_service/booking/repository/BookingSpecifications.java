@@ -0,0 +1,43 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingSearch;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> matching(BookingSearch search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (search.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("dateTime"), search.from()));
+            }
+            if (search.to() != null) {
+                predicates.add(cb.lessThan(root.<LocalDateTime>get("dateTime"), search.to()));
+            }
+            if (search.statuses() != null && !search.statuses().isEmpty()) {
+                predicates.add(root.get("status").in(search.statuses()));
+            }
+            if (search.email() != null) {
+                predicates.add(cb.equal(root.get("email"), search.email()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Booking> after(BookingCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.<LocalDateTime>get("dateTime"), cursor.dateTime()),
+                cb.and(cb.equal(root.<LocalDateTime>get("dateTime"), cursor.dateTime()),
+                        cb.greaterThan(root.<Long>get("id"), cursor.id())));
+    }
+}
@@ -0,0 +1,62 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.IdempotencyRecord;
+import eu.kaninis.booking_service.booking.model.IdempotencyState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Projection, not the entity: waiters poll this and must not get a cached managed instance back
+    // An expired row is absent, whether or not the purge has removed it yet
+    @Query("""
+            select new eu.kaninis.booking_service.booking.model.IdempotencyState(
+                r.fingerprint, r.statusCode, r.etag, r.body, r.createdAt)
+            from IdempotencyRecord r where r.key = :key and r.expiresAt > :now""")
+    Optional<IdempotencyState> findState(@Param("key") String key, @Param("now") Instant now);
+
+    // Claims are identified by createdAt: a takeover stamps a new one, so the old owner no longer matches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from IdempotencyRecord r where r.key = :key and r.statusCode is null and r.createdAt = :claimedAt")
+    Optional<IdempotencyRecord> lockClaim(@Param("key") String key, @Param("claimedAt") Instant claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.statusCode = :statusCode, r.etag = :etag, r.body = :body
+            where r.key = :key and r.statusCode is null and r.createdAt = :claimedAt""")
+    int complete(@Param("key") String key, @Param("claimedAt") Instant claimedAt, @Param("statusCode") int statusCode,
+                 @Param("etag") String etag, @Param("body") String body);
+
+    // Reclaims a key whose owner stopped making progress (e.g. the node died mid-request)
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.createdAt = :now
+            where r.key = :key and r.statusCode is null and r.createdAt = :claimedAt""")
+    int takeOver(@Param("key") String key, @Param("claimedAt") Instant claimedAt, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.statusCode is null and r.createdAt = :claimedAt")
+    int release(@Param("key") String key, @Param("claimedAt") Instant claimedAt);
+
+    // Frees an expired key for a new claim without waiting for the purge
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,24 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.IngestResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface IngestResultRepository extends JpaRepository<IngestResult, UUID> {
+
+    @Query("select r.trackingId from IngestResult r where r.trackingId in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IngestResult r where r.completedAt < :before")
+    int deleteCompletedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,30 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Extends the owner's lease, or takes over one that has run out; 0 rows means someone else holds it
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update SchedulerLease l set l.owner = :owner, l.expiresAt = :expiresAt
+            where l.name = :name and (l.owner = :owner or l.expiresAt < :now)
+            """)
+    int renew(@Param("name") String name,
+              @Param("owner") String owner,
+              @Param("now") Instant now,
+              @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update SchedulerLease l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -0,0 +1,44 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.SlotAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SlotAvailabilityRepository extends JpaRepository<SlotAvailability, SlotAvailability.Key> {
+
+    @Query("""
+            select a from SlotAvailability a
+            where a.slotTime >= :from and a.slotTime < :to
+            order by a.slotTime, a.status
+            """)
+    List<SlotAvailability> findBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update SlotAvailability a set a.seats = a.seats + :seats, a.bookings = a.bookings + :bookings
+            where a.slotTime = :slotTime and a.status = :status
+            """)
+    int adjust(@Param("slotTime") LocalDateTime slotTime, @Param("status") BookingStatus status,
+               @Param("seats") int seats, @Param("bookings") int bookings);
+
+    // Moves one booking between two status rows, reading slot and party size in the same statement
+    @Transactional
+    @Modifying
+    @Query(value = """
+            update slot_availability
+            set seats = seats + (case when status = :to then 1 else -1 end)
+                    * (select b.number_of_people from bookings b where b.id = :bookingId),
+                bookings = bookings + (case when status = :to then 1 else -1 end)
+            where slot_time = (select b.date_time from bookings b where b.id = :bookingId)
+              and status in (:from, :to)
+            """, nativeQuery = true)
+    int moveBooking(@Param("bookingId") Long bookingId, @Param("from") String from, @Param("to") String to);
+}
@@ -0,0 +1,58 @@
+package eu.kaninis.booking_service.booking.repository;
+
+import eu.kaninis.booking_service.booking.model.SlotCapacity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SlotCapacityRepository extends JpaRepository<SlotCapacity, LocalDateTime> {
+
+    @Query("select s from SlotCapacity s where s.slotTime >= :from and s.slotTime < :to order by s.slotTime")
+    List<SlotCapacity> findBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Key order, the order every writer locks slots in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SlotCapacity s where s.slotTime in :slotTimes order by s.slotTime")
+    List<SlotCapacity> lockAll(@Param("slotTimes") Collection<LocalDateTime> slotTimes);
+
+    // Bookings made before the slot had a row already hold seats in it
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into slot_capacity (slot_time, capacity, reserved)
+            select :slotTime, :capacity, coalesce(sum(b.number_of_people), 0)
+            from bookings b
+            where b.date_time = :slotTime and b.status <> 'CANCELLED'
+            """, nativeQuery = true)
+    int create(@Param("slotTime") LocalDateTime slotTime, @Param("capacity") int capacity);
+
+    // Check and decrement in one statement; only the slot's own row is locked
+    @Transactional
+    @Modifying
+    @Query("""
+            update SlotCapacity s set s.reserved = s.reserved + :seats
+            where s.slotTime = :slotTime and s.reserved + :seats <= s.capacity
+            """)
+    int tryReserve(@Param("slotTime") LocalDateTime slotTime, @Param("seats") int seats);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update SlotCapacity s set s.reserved = s.reserved - :seats
+            where s.slotTime = :slotTime and s.reserved >= :seats
+            """)
+    int release(@Param("slotTime") LocalDateTime slotTime, @Param("seats") int seats);
+
+    @Transactional
+    @Modifying
+    @Query("update SlotCapacity s set s.capacity = :capacity where s.slotTime = :slotTime")
+    int updateCapacity(@Param("slotTime") LocalDateTime slotTime, @Param("capacity") int capacity);
+}
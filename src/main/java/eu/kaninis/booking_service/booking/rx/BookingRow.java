@@ -0,0 +1,23 @@
+package eu.kaninis.booking_service.booking.rx;
+
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+
+import java.time.LocalDateTime;
+
+/**
+ * A {@code bookings} row as read over R2DBC. Serializes to the same JSON as the
+ * {@code Booking} entity, so clients see no difference between the two stacks.
+ */
+public record BookingRow(Long id, String name, String email, LocalDateTime dateTime, int numberOfPeople,
+                         BookingStatus status, Long version) {
+
+    public BookingSummary summary() {
+        return new BookingSummary(id, dateTime, status, numberOfPeople, version);
+    }
+
+    public BookingCursor cursor() {
+        return new BookingCursor(dateTime, id);
+    }
+}
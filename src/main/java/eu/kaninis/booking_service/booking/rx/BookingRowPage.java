@@ -0,0 +1,9 @@
+package eu.kaninis.booking_service.booking.rx;
+
+import java.util.List;
+
+/**
+ * One keyset page of {@link BookingRow}s. {@code nextCursor} is {@code null} on the last page.
+ */
+public record BookingRowPage(List<BookingRow> items, String nextCursor) {
+}
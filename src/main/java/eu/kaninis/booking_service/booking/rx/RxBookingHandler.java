@@ -0,0 +1,155 @@
+package eu.kaninis.booking_service.booking.rx;
+
+import eu.kaninis.booking_service.booking.controller.BookingController;
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingFields;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+import eu.kaninis.booking_service.booking.model.BookingSummaryPage;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Handlers behind {@code /rx/bookings}: the read side of {@code /bookings} (export, keyset
+ * pages and lookup by id) without a thread per request. A lookup with {@code If-None-Match}
+ * and {@code ?wait=} long-polls: it answers as soon as the booking's version differs from
+ * the tag, or with 304 once the wait is over, and holds neither a thread nor a connection
+ * between polls.
+ */
+public class RxBookingHandler {
+
+    private final RxBookingRepository repository;
+    private final Duration pollInterval;
+    private final Duration maxWait;
+
+    public RxBookingHandler(RxBookingRepository repository, Duration pollInterval, Duration maxWait) {
+        this.repository = repository;
+        this.pollInterval = pollInterval;
+        this.maxWait = maxWait;
+    }
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        return export(request, MediaType.APPLICATION_JSON);
+    }
+
+    // One line per booking, written as the client reads; demand goes back to the database cursor
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return export(request, MediaType.APPLICATION_NDJSON);
+    }
+
+    public Mono<ServerResponse> page(ServerRequest request) {
+        Optional<BookingFields> selected = fields(request);
+        Integer limit = parseInt(request.queryParam("limit").orElse(""));
+        if (limit == null || limit < 1 || limit > BookingController.MAX_PAGE_SIZE || selected.isEmpty()) {
+            return ServerResponse.badRequest().build();
+        }
+        BookingCursor after = null;
+        Optional<String> cursor = request.queryParam("cursor");
+        if (cursor.isPresent()) {
+            Optional<BookingCursor> decoded = BookingCursor.decode(cursor.get());
+            if (decoded.isEmpty()) {
+                return ServerResponse.badRequest().build();
+            }
+            after = decoded.get();
+        }
+        if (selected.get() == BookingFields.SUMMARY) {
+            return repository.findSummaryPage(after, limit).collectList()
+                    .map(items -> new BookingSummaryPage(items, nextCursor(items, limit, BookingCursor::of)))
+                    .flatMap(page -> ServerResponse.ok().bodyValue(page));
+        }
+        return repository.findPage(after, limit).collectList()
+                .map(items -> new BookingRowPage(items, nextCursor(items, limit, BookingRow::cursor)))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> get(ServerRequest request) {
+        Long id = parseLong(request.pathVariable("id"));
+        Optional<BookingFields> selected = fields(request);
+        Duration wait = parseWait(request.queryParam("wait").orElse("0"));
+        if (id == null || selected.isEmpty() || wait == null) {
+            return ServerResponse.badRequest().build();
+        }
+        String ifNoneMatch = request.headers().asHttpHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        Long known = BookingController.parseIfMatch(ifNoneMatch).orElse(null);
+        Mono<Optional<BookingRow>> lookup = repository.findById(id).map(Optional::of).defaultIfEmpty(Optional.empty());
+        Mono<Optional<BookingRow>> result = known == null || wait.isZero()
+                ? lookup
+                : Flux.interval(Duration.ZERO, pollInterval)
+                        .concatMap(tick -> lookup)
+                        .filter(row -> row.isEmpty() || !known.equals(row.get().version()))
+                        .next()
+                        .timeout(wait, lookup);
+        return result.flatMap(row -> {
+            if (row.isEmpty()) {
+                return ServerResponse.notFound().build();
+            }
+            BookingRow booking = row.get();
+            String eTag = String.valueOf(booking.version());
+            if (known != null && known.equals(booking.version())) {
+                return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            Object body = selected.get() == BookingFields.SUMMARY ? booking.summary() : booking;
+            return booking.version() != null
+                    ? ServerResponse.ok().eTag(eTag).bodyValue(body)
+                    : ServerResponse.ok().bodyValue(body);
+        });
+    }
+
+    private Mono<ServerResponse> export(ServerRequest request, MediaType contentType) {
+        Optional<BookingFields> selected = fields(request);
+        if (selected.isEmpty()) {
+            return ServerResponse.badRequest().build();
+        }
+        ServerResponse.BodyBuilder ok = ServerResponse.ok().contentType(contentType);
+        return selected.get() == BookingFields.SUMMARY
+                ? ok.body(repository.streamSummaries(), BookingSummary.class)
+                : ok.body(repository.streamAll(), BookingRow.class);
+    }
+
+    // Capped at booking.rx.max-wait; a wait that cannot be parsed is a bad request
+    private Duration parseWait(String value) {
+        try {
+            Duration wait = DurationStyle.detectAndParse(value);
+            if (wait.isNegative()) {
+                return null;
+            }
+            return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Optional<BookingFields> fields(ServerRequest request) {
+        return BookingFields.parse(request.queryParam("fields").orElse("full"));
+    }
+
+    private static <T> String nextCursor(List<T> items, int limit, Function<T, BookingCursor> cursor) {
+        return items.size() < limit ? null : cursor.apply(items.get(items.size() - 1)).encode();
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package eu.kaninis.booking_service.booking.rx;
+
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reads the {@code bookings} table over R2DBC, with the same orderings and keyset
+ * predicate as {@code BookingRepository}. Streams fetch {@code fetchSize} rows at a time
+ * as the subscriber asks for them, so a slow client holds the cursor back instead of
+ * the rows piling up in memory.
+ */
+public class RxBookingRepository {
+
+    private static final String COLUMNS = "id, name, email, date_time, number_of_people, status, version";
+    private static final String SUMMARY_COLUMNS = "id, date_time, status, number_of_people, version";
+    private static final String AFTER = "date_time > :dateTime or (date_time = :dateTime and id > :id)";
+
+    private final DatabaseClient client;
+    private final int fetchSize;
+
+    public RxBookingRepository(DatabaseClient client, int fetchSize) {
+        this.client = client;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<BookingRow> findById(long id) {
+        return client.sql("select " + COLUMNS + " from bookings where id = :id")
+                .bind("id", id)
+                .map(RxBookingRepository::row)
+                .one();
+    }
+
+    public Flux<BookingRow> findPage(BookingCursor after, int limit) {
+        return page(COLUMNS, after, limit).map(RxBookingRepository::row).all();
+    }
+
+    public Flux<BookingSummary> findSummaryPage(BookingCursor after, int limit) {
+        return page(SUMMARY_COLUMNS, after, limit).map(RxBookingRepository::summary).all();
+    }
+
+    public Flux<BookingRow> streamAll() {
+        return client.sql("select " + COLUMNS + " from bookings order by id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(RxBookingRepository::row)
+                .all();
+    }
+
+    public Flux<BookingSummary> streamSummaries() {
+        return client.sql("select " + SUMMARY_COLUMNS + " from bookings order by id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(RxBookingRepository::summary)
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec page(String columns, BookingCursor after, int limit) {
+        if (after == null) {
+            return client.sql("select " + columns + " from bookings order by date_time, id limit :limit")
+                    .bind("limit", limit);
+        }
+        return client.sql("select " + columns + " from bookings where " + AFTER + " order by date_time, id limit :limit")
+                .bind("dateTime", after.dateTime())
+                .bind("id", after.id())
+                .bind("limit", limit);
+    }
+
+    private static BookingRow row(Readable row) {
+        return new BookingRow(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("date_time", LocalDateTime.class),
+                row.get("number_of_people", Integer.class),
+                status(row),
+                row.get("version", Long.class));
+    }
+
+    private static BookingSummary summary(Readable row) {
+        return new BookingSummary(
+                row.get("id", Long.class),
+                row.get("date_time", LocalDateTime.class),
+                status(row),
+                row.get("number_of_people", Integer.class),
+                row.get("version", Long.class));
+    }
+
+    private static BookingStatus status(Readable row) {
+        String status = row.get("status", String.class);
+        return status != null ? BookingStatus.valueOf(status) : null;
+    }
+}
@@ -0,0 +1,90 @@
+package eu.kaninis.booking_service.booking.rx;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.time.Duration;
+
+/**
+ * The reactive read stack: WebFlux functional routes under {@code /rx/bookings} over an
+ * R2DBC pool on the same {@code bookings} table, served by {@link RxServer}. Switched on
+ * by the {@code reactive} profile ({@code booking.rx.enabled}); writes stay on
+ * {@code /bookings}, where slot admission, the outbox and the cache live.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.rx.enabled", havingValue = "true")
+public class RxConfig {
+
+    // close() returns a Mono that nobody would subscribe to; dispose() blocks until closed
+    @Bean(destroyMethod = "dispose")
+    ConnectionPool rxConnectionFactory(@Value("${booking.rx.r2dbc.url}") String url,
+                                       @Value("${booking.rx.r2dbc.username:${spring.datasource.username}}") String username,
+                                       @Value("${booking.rx.r2dbc.password:${spring.datasource.password}}") String password,
+                                       @Value("${booking.rx.r2dbc.pool.max-size:10}") int maxSize,
+                                       @Value("${booking.rx.r2dbc.pool.max-acquire-time:30s}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("rx")
+                .initialSize(maxSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    RxBookingRepository rxBookingRepository(ConnectionPool rxConnectionFactory,
+                                            @Value("${booking.rx.fetch-size:500}") int fetchSize) {
+        return new RxBookingRepository(DatabaseClient.create(rxConnectionFactory), fetchSize);
+    }
+
+    @Bean
+    RxBookingHandler rxBookingHandler(RxBookingRepository rxBookingRepository,
+                                      @Value("${booking.rx.poll-interval:500ms}") Duration pollInterval,
+                                      @Value("${booking.rx.max-wait:60s}") Duration maxWait) {
+        return new RxBookingHandler(rxBookingRepository, pollInterval, maxWait);
+    }
+
+    @Bean
+    RxServer rxServer(RxBookingHandler rxBookingHandler, ObjectMapper objectMapper,
+                      @Value("${booking.rx.port:8081}") int port,
+                      @Value("${server.compression.min-response-size:2KB}") DataSize compressionMinSize) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new RxServer(RouterFunctions.toHttpHandler(routes(rxBookingHandler), strategies), port,
+                (int) compressionMinSize.toBytes());
+    }
+
+    // Same resource shapes as /bookings: ?limit pages, JSON array export, NDJSON stream
+    static RouterFunction<ServerResponse> routes(RxBookingHandler handler) {
+        return RouterFunctions.route()
+                .GET("/rx/bookings", RequestPredicates.queryParam("limit", limit -> true), handler::page)
+                .GET("/rx/bookings", RequestPredicates.accept(MediaType.APPLICATION_JSON), handler::list)
+                .GET("/rx/bookings", RequestPredicates.accept(MediaType.APPLICATION_NDJSON), handler::stream)
+                .GET("/rx/bookings/{id}", handler::get)
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package eu.kaninis.booking_service.booking.rx;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Netty server for the {@code /rx} routes, on its own port and event loops next to
+ * Tomcat. Servlet filters (rate limiting, load shedding, zstd, the readiness gate) do
+ * not run here.
+ */
+public class RxServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private final int compressionMinSize;
+    private volatile DisposableServer server;
+
+    public RxServer(HttpHandler httpHandler, int port, int compressionMinSize) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .compress(compressionMinSize)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /** The bound port, which differs from the configured one when that is 0. */
+    public int port() {
+        DisposableServer running = server;
+        if (running == null) {
+            throw new IllegalStateException("Reactive server is not running");
+        }
+        return running.port();
+    }
+}
@@ -0,0 +1,227 @@
+package eu.kaninis.booking_service.booking.service;
+
+import eu.kaninis.booking_service.booking.model.Availability;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.SlotAvailability;
+import eu.kaninis.booking_service.booking.model.SlotCapacity;
+import eu.kaninis.booking_service.booking.repository.SlotAvailabilityRepository;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@code slot_availability}: seats and bookings per slot and status. Writers
+ * adjust it in their own transaction, so reads only touch the slots in the requested
+ * range, however many bookings exist. Rows for a slot are created together with its
+ * {@link SlotCapacity} row, counted from the bookings that already exist at that time;
+ * {@link #rebuild()} recomputes everything from {@code bookings}.
+ */
+@Service
+public class AvailabilityService {
+
+    /**
+     * Net change per slot and status, applied as one UPDATE per row in key order so
+     * concurrent writers lock rows in the same order.
+     */
+    public static final class Delta {
+
+        private final Map<SlotAvailability.Key, int[]> changes = new TreeMap<>();
+
+        public Delta add(Booking booking) {
+            return add(booking.getDateTime(), booking.getStatus(), booking.getNumberOfPeople(), 1);
+        }
+
+        public Delta remove(Booking booking) {
+            return add(booking.getDateTime(), booking.getStatus(), -booking.getNumberOfPeople(), -1);
+        }
+
+        public Delta add(LocalDateTime slotTime, BookingStatus status, int seats, int bookings) {
+            int[] change = changes.computeIfAbsent(new SlotAvailability.Key(slotTime, status), key -> new int[2]);
+            change[0] += seats;
+            change[1] += bookings;
+            return this;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private final SlotAvailabilityRepository slotAvailabilityRepository;
+    private final SlotCapacityRepository slotCapacityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    public AvailabilityService(SlotAvailabilityRepository slotAvailabilityRepository,
+                               SlotCapacityRepository slotCapacityRepository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.slotAvailabilityRepository = slotAvailabilityRepository;
+        this.slotCapacityRepository = slotCapacityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Inserts the slot's rows, one per status, with the seats and bookings it already has.
+     * Runs in the caller's transaction and fails if the rows exist.
+     */
+    public void createRows(LocalDateTime slotTime) {
+        String statuses = Arrays.stream(BookingStatus.values())
+                .map(status -> "select '" + status.name() + "' as status")
+                .collect(Collectors.joining(" union all "));
+        jdbcTemplate.update("""
+                insert into slot_availability (slot_time, status, seats, bookings)
+                select cast(? as timestamp), st.status,
+                       coalesce((select sum(b.number_of_people) from bookings b
+                                 where b.date_time = ? and b.status = st.status), 0),
+                       (select count(*) from bookings b
+                        where b.date_time = ? and b.status = st.status)
+                from (%s) st
+                """.formatted(statuses), slotTime, slotTime, slotTime);
+    }
+
+    // Slots in key order, statuses in enum order, the order Delta applies changes in
+    void lockRows(Collection<LocalDateTime> slotTimes) {
+        String statusOrder = Arrays.stream(BookingStatus.values())
+                .map(status -> "when '" + status.name() + "' then " + status.ordinal())
+                .collect(Collectors.joining(" ", "case status ", " end"));
+        jdbcTemplate.query("""
+                select slot_time from slot_availability where slot_time in (%s)
+                order by slot_time, %s for update
+                """.formatted(String.join(", ", Collections.nCopies(slotTimes.size(), "?")), statusOrder),
+                rs -> {
+                }, slotTimes.toArray());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Availability> find(LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, List<SlotAvailability>> rows = slotAvailabilityRepository.findBetween(from, to).stream()
+                .collect(Collectors.groupingBy(SlotAvailability::getSlotTime, LinkedHashMap::new, Collectors.toList()));
+        Map<LocalDateTime, SlotCapacity> capacities = slotCapacityRepository.findBetween(from, to).stream()
+                .collect(Collectors.toMap(SlotCapacity::getSlotTime, slot -> slot));
+        return rows.entrySet().stream()
+                .filter(entry -> capacities.containsKey(entry.getKey()))
+                .map(entry -> {
+                    SlotCapacity slot = capacities.get(entry.getKey());
+                    Map<BookingStatus, Integer> seats = new EnumMap<>(BookingStatus.class);
+                    Map<BookingStatus, Integer> bookings = new EnumMap<>(BookingStatus.class);
+                    for (SlotAvailability row : entry.getValue()) {
+                        seats.put(row.getStatus(), row.getSeats());
+                        bookings.put(row.getStatus(), row.getBookings());
+                    }
+                    return new Availability(slot.getSlotTime(), slot.getCapacity(), slot.getAvailable(), seats, bookings);
+                })
+                .toList();
+    }
+
+    public void added(Booking booking) {
+        apply(new Delta().add(booking));
+    }
+
+    public void removed(Booking booking) {
+        apply(new Delta().remove(booking));
+    }
+
+    public void apply(Delta delta) {
+        delta.changes.forEach((key, change) -> {
+            if (change[0] == 0 && change[1] == 0) {
+                return;
+            }
+            if (slotAvailabilityRepository.adjust(key.getSlotTime(), key.getStatus(), change[0], change[1]) == 0) {
+                // Slot predates the aggregate and was never rebuilt; start its rows here
+                createRowsIfMissing(key.getSlotTime());
+                slotAvailabilityRepository.adjust(key.getSlotTime(), key.getStatus(), change[0], change[1]);
+            }
+        });
+    }
+
+    // Own transaction, as in SlotAdmission.ensureSlot: on PostgreSQL a lost insert race would abort the caller's
+    // The new transaction does not see the caller's uncommitted booking, so the delta still applies on top
+    private void createRowsIfMissing(LocalDateTime slotTime) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> createRows(slotTime));
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created them first
+        }
+    }
+
+    /** Moves an existing booking from one status row to another without loading it. */
+    public void statusChanged(Long bookingId, BookingStatus from, BookingStatus to) {
+        slotAvailabilityRepository.moveBooking(bookingId, from.name(), to.name());
+    }
+
+    /**
+     * Recomputes every slot's rows from {@code bookings}, one slot per transaction. Each
+     * slot is recounted under its {@code slot_capacity} and {@code slot_availability} row
+     * locks, taken in the order writers take them. Writers on that slot wait for the
+     * recount and then apply their change on top of it. Writers on other slots are not
+     * affected.
+     */
+    @Scheduled(cron = "${booking.availability.rebuild-cron:-}")
+    public void rebuild() {
+        int failed = 0;
+        for (LocalDateTime slotTime : jdbcTemplate.queryForList(
+                "select slot_time from slot_capacity order by slot_time", LocalDateTime.class)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuildSlot(slotTime));
+            } catch (DataAccessException e) {
+                // E.g. a writer created the slot's rows at the same moment; the next rebuild covers it
+                failed++;
+                log.warn("Rebuilding availability for slot {} failed", slotTime, e);
+            }
+        }
+        if (failed > 0) {
+            log.warn("Availability rebuild skipped {} slots", failed);
+        }
+    }
+
+    private void rebuildSlot(LocalDateTime slotTime) {
+        List<LocalDateTime> locked = jdbcTemplate.queryForList(
+                "select slot_time from slot_capacity where slot_time = ? for update", LocalDateTime.class, slotTime);
+        if (locked.isEmpty()) {
+            return;
+        }
+        // One row at a time in enum order, the order Delta applies changes in
+        for (BookingStatus status : BookingStatus.values()) {
+            List<String> row = jdbcTemplate.queryForList(
+                    "select status from slot_availability where slot_time = ? and status = ? for update",
+                    String.class, slotTime, status.name());
+            if (row.isEmpty()) {
+                jdbcTemplate.update("insert into slot_availability (slot_time, status, seats, bookings) values (?, ?, 0, 0)",
+                        slotTime, status.name());
+            }
+        }
+        jdbcTemplate.update("""
+                update slot_availability
+                set seats = coalesce((select sum(b.number_of_people) from bookings b
+                                      where b.date_time = slot_availability.slot_time
+                                        and b.status = slot_availability.status), 0),
+                    bookings = (select count(*) from bookings b
+                                where b.date_time = slot_availability.slot_time
+                                  and b.status = slot_availability.status)
+                where slot_time = ?
+                """, slotTime);
+    }
+}
@@ -0,0 +1,175 @@
+package eu.kaninis.booking_service.booking.service;
+
+import eu.kaninis.booking_service.booking.cache.BookingCacheInvalidator;
+import eu.kaninis.booking_service.booking.events.BookingEventRecorder;
+import eu.kaninis.booking_service.booking.model.BatchItemResult;
+import eu.kaninis.booking_service.booking.model.BatchItemResult.Outcome;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create/update. Valid items are written in chunks of {@link #CHUNK_SIZE}, one
+ * transaction per chunk, so inserts go out as JDBC batches and the persistence
+ * context is cleared between chunks.
+ */
+@Service
+public class BookingBatchService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final SlotAdmission slotAdmission;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final BookingCacheInvalidator cacheInvalidator;
+    private final BookingEventRecorder eventRecorder;
+    private final AvailabilityService availabilityService;
+
+    public BookingBatchService(BookingRepository bookingRepository, SlotAdmission slotAdmission,
+                               Validator validator, EntityManager entityManager,
+                               BookingCacheInvalidator cacheInvalidator, BookingEventRecorder eventRecorder,
+                               AvailabilityService availabilityService) {
+        this.bookingRepository = bookingRepository;
+        this.slotAdmission = slotAdmission;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventRecorder = eventRecorder;
+        this.availabilityService = availabilityService;
+    }
+
+    public List<BatchItemResult> createOrUpdate(List<Booking> bookings) {
+        return createOrUpdate(bookings, chunkResults -> {
+        });
+    }
+
+    /**
+     * As {@link #createOrUpdate(List)}, calling {@code onChunkWritten} inside each chunk's
+     * transaction with that chunk's results, so callers can record them atomically with the writes.
+     */
+    public List<BatchItemResult> createOrUpdate(List<Booking> bookings, Consumer<List<BatchItemResult>> onChunkWritten) {
+        BatchItemResult[] results = new BatchItemResult[bookings.size()];
+        List<Integer> valid = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            Set<ConstraintViolation<Booking>> violations = validator.validate(bookings.get(i));
+            if (violations.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = BatchItemResult.invalid(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .toList());
+            }
+        }
+        for (int from = 0; from < valid.size(); from += CHUNK_SIZE) {
+            writeChunk(bookings, valid.subList(from, Math.min(from + CHUNK_SIZE, valid.size())), results,
+                    onChunkWritten);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void writeChunk(List<Booking> bookings, List<Integer> chunk, BatchItemResult[] results,
+                            Consumer<List<BatchItemResult>> onChunkWritten) {
+        Set<LocalDateTime> slots = chunk.stream()
+                .map(i -> bookings.get(i).getDateTime())
+                .collect(Collectors.toSet());
+        slotAdmission.admitAll(slots, () -> {
+            List<Integer> creates = new ArrayList<>();
+            List<Integer> updates = new ArrayList<>();
+            for (int i : chunk) {
+                (bookings.get(i).getId() == null ? creates : updates).add(i);
+            }
+            AvailabilityService.Delta delta = new AvailabilityService.Delta();
+            List<Booking> updated = applyUpdates(bookings, updates, results, delta);
+            Collection<Booking> created = applyCreates(bookings, creates, results);
+            created.forEach(delta::add);
+            availabilityService.apply(delta);
+            // Flush first so event payloads carry the new versions
+            entityManager.flush();
+            created.forEach(eventRecorder::created);
+            updated.forEach(eventRecorder::updated);
+            onChunkWritten.accept(chunk.stream().map(i -> results[i]).toList());
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+
+    private List<Booking> applyUpdates(List<Booking> bookings, List<Integer> updates, BatchItemResult[] results,
+                                       AvailabilityService.Delta delta) {
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Booking> existing = bookingRepository.findAllById(updates.stream()
+                        .map(i -> bookings.get(i).getId())
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<Booking> written = new ArrayList<>(updates.size());
+        for (int i : updates) {
+            Booking updated = bookings.get(i);
+            Booking current = existing.get(updated.getId());
+            if (current == null) {
+                results[i] = BatchItemResult.of(i, Outcome.NOT_FOUND, updated.getId());
+            } else if (!slotAdmission.tryMove(current.getDateTime(), SlotAdmission.seatsHeldBy(current),
+                    updated.getDateTime(), SlotAdmission.seatsHeldBy(updated))) {
+                results[i] = BatchItemResult.of(i, Outcome.SLOT_FULL, current.getId());
+            } else {
+                delta.remove(current);
+                current.setName(updated.getName());
+                current.setEmail(updated.getEmail());
+                current.setDateTime(updated.getDateTime());
+                current.setNumberOfPeople(updated.getNumberOfPeople());
+                current.setStatus(updated.getStatus());
+                delta.add(current);
+                cacheInvalidator.invalidate(current.getId());
+                written.add(current);
+                results[i] = BatchItemResult.of(i, Outcome.UPDATED, current.getId());
+            }
+        }
+        return written;
+    }
+
+    private Collection<Booking> applyCreates(List<Booking> bookings, List<Integer> creates, BatchItemResult[] results) {
+        // One conditional UPDATE per slot for the whole chunk; per-item only for slots that overflow
+        Map<LocalDateTime, List<Integer>> bySlot = new LinkedHashMap<>();
+        for (int i : creates) {
+            bySlot.computeIfAbsent(bookings.get(i).getDateTime(), slot -> new ArrayList<>()).add(i);
+        }
+        Map<Integer, Booking> admitted = new HashMap<>();
+        bySlot.forEach((slot, items) -> {
+            int seats = items.stream().mapToInt(i -> SlotAdmission.seatsHeldBy(bookings.get(i))).sum();
+            boolean all = slotAdmission.tryReserve(slot, seats);
+            for (int i : items) {
+                Booking booking = bookings.get(i);
+                if (all || slotAdmission.tryReserve(slot, SlotAdmission.seatsHeldBy(booking))) {
+                    admitted.put(i, booking);
+                } else {
+                    results[i] = BatchItemResult.of(i, Outcome.SLOT_FULL, null);
+                }
+            }
+        });
+        bookingRepository.saveAll(admitted.values());
+        admitted.forEach((i, booking) ->
+                results[i] = BatchItemResult.of(i, Outcome.CREATED, Objects.requireNonNull(booking.getId())));
+        return admitted.values();
+    }
+}
@@ -0,0 +1,90 @@
+package eu.kaninis.booking_service.booking.service;
+
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes bookings in chunks of {@code chunk-size}, each in its own short transaction,
+ * so row locks are held briefly and WAL is written in small bursts that replicas and
+ * autovacuum can keep up with. Serves {@code DELETE /bookings} and the scheduled purge
+ * of cancelled bookings older than {@code cancelled-retention}. Nodes running the purge
+ * at the same time lock disjoint chunks.
+ */
+@Service
+public class BookingPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingPurgeService.class);
+
+    private final BookingService bookingService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int chunkSize;
+    private final Duration chunkPause;
+    private final Duration cancelledRetention;
+
+    public BookingPurgeService(BookingService bookingService, ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${booking.purge.chunk-size:1000}") int chunkSize,
+                               @Value("${booking.purge.chunk-pause:50ms}") Duration chunkPause,
+                               @Value("${booking.purge.cancelled-retention:30d}") Duration cancelledRetention) {
+        this.bookingService = bookingService;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+        this.cancelledRetention = cancelledRetention;
+    }
+
+    /** Deletes every booking in {@code statuses} that starts before {@code before}. */
+    public int deleteAll(Collection<BookingStatus> statuses, LocalDateTime before) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = bookingService.deleteChunk(statuses, before, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize && pause());
+        return total;
+    }
+
+    @Scheduled(cron = "${booking.purge.cron:0 45 3 * * *}")
+    public int purgeCancelled() {
+        LocalDateTime before = LocalDateTime.now().minus(cancelledRetention);
+        long start = System.nanoTime();
+        int deleted = deleteAll(EnumSet.of(BookingStatus.CANCELLED), before);
+        log.info("Purged {} cancelled bookings before {} in {} ms", deleted, before,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder("booking.purge.deleted")
+                    .description("Bookings deleted per purge run")
+                    .tag("status", BookingStatus.CANCELLED.name())
+                    .register(registry)
+                    .record(deleted);
+        }
+        return deleted;
+    }
+
+    // Gives replicas and autovacuum room between chunks; false stops early on shutdown
+    private boolean pause() {
+        if (chunkPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
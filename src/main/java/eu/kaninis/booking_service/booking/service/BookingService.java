@@ -1,46 +1,354 @@
 package eu.kaninis.booking_service.booking.service;
 
+import eu.kaninis.booking_service.booking.cache.BookingCacheConfig;
+import eu.kaninis.booking_service.booking.cache.BookingCacheInvalidator;
+import eu.kaninis.booking_service.booking.events.BookingEventRecorder;
 import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingPage;
+import eu.kaninis.booking_service.booking.model.BookingSearch;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+import eu.kaninis.booking_service.booking.model.BookingSummaryPage;
+import eu.kaninis.booking_service.booking.model.BulkStatusResult;
+import eu.kaninis.booking_service.booking.model.SeatHold;
+import eu.kaninis.booking_service.booking.model.StatusSnapshot;
 import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.BookingSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
+    private static final Sort KEYSET_ORDER = Sort.by("dateTime", "id");
+
     private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final SlotAdmission slotAdmission;
+    private final BookingCacheInvalidator cacheInvalidator;
+    private final BookingEventRecorder eventRecorder;
+    private final AvailabilityService availabilityService;
 
-    public BookingService(BookingRepository bookingRepository) {
+    public BookingService(BookingRepository bookingRepository, EntityManager entityManager,
+                          SlotAdmission slotAdmission, BookingCacheInvalidator cacheInvalidator,
+                          BookingEventRecorder eventRecorder, AvailabilityService availabilityService) {
         this.bookingRepository = bookingRepository;
+        this.entityManager = entityManager;
+        this.slotAdmission = slotAdmission;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventRecorder = eventRecorder;
+        this.availabilityService = availabilityService;
     }
 
+    @Transactional(readOnly = true)
     public List<Booking> findAll() {
         return bookingRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public BookingPage findPage(BookingCursor after, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit);
+        List<Booking> items = after == null
+                ? bookingRepository.findFirstPage(pageable)
+                : bookingRepository.findPageAfter(after.dateTime(), after.id(), pageable);
+        String nextCursor = items.size() < limit
+                ? null
+                : BookingCursor.of(items.get(items.size() - 1)).encode();
+        return new BookingPage(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingPage search(BookingSearch search, BookingCursor after, int limit) {
+        Specification<Booking> spec = BookingSpecifications.matching(search);
+        if (after != null) {
+            spec = spec.and(BookingSpecifications.after(after));
+        }
+        List<Booking> items = bookingRepository.findBy(spec, query -> query
+                .sortBy(KEYSET_ORDER)
+                .limit(limit)
+                .all());
+        String nextCursor = items.size() < limit
+                ? null
+                : BookingCursor.of(items.get(items.size() - 1)).encode();
+        return new BookingPage(items, nextCursor);
+    }
+
+    /**
+     * Hands every booking to {@code consumer} one at a time. Each entity is detached
+     * once consumed so the persistence context does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Booking> consumer) {
+        try (Stream<Booking> bookings = bookingRepository.streamAll()) {
+            bookings.forEach(booking -> {
+                consumer.accept(booking);
+                entityManager.detach(booking);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public BookingSummaryPage findSummaryPage(BookingCursor after, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit);
+        List<BookingSummary> items = after == null
+                ? bookingRepository.findFirstSummaryPage(pageable)
+                : bookingRepository.findSummaryPageAfter(after.dateTime(), after.id(), pageable);
+        return new BookingSummaryPage(items, nextCursor(items, limit));
+    }
+
+    /** As {@link #search}, but selects {@link BookingSummary} rows instead of entities. */
+    @Transactional(readOnly = true)
+    public BookingSummaryPage searchSummaries(BookingSearch search, BookingCursor after, int limit) {
+        Specification<Booking> spec = BookingSpecifications.matching(search);
+        if (after != null) {
+            spec = spec.and(BookingSpecifications.after(after));
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingSummary> query = cb.createQuery(BookingSummary.class);
+        Root<Booking> root = query.from(Booking.class);
+        query.select(cb.construct(BookingSummary.class, root.get("id"), root.get("dateTime"), root.get("status"),
+                        root.get("numberOfPeople"), root.get("version")))
+                .orderBy(cb.asc(root.get("dateTime")), cb.asc(root.get("id")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<BookingSummary> items = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        return new BookingSummaryPage(items, nextCursor(items, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamSummaries(Consumer<BookingSummary> consumer) {
+        try (Stream<BookingSummary> summaries = bookingRepository.streamSummaries()) {
+            summaries.forEach(consumer);
+        }
+    }
+
+    @Cacheable(cacheNames = BookingCacheConfig.BOOKINGS, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<Booking> findById(Long id) {
         return bookingRepository.findById(id);
     }
 
     public Booking create(Booking booking) {
-        return bookingRepository.save(booking);
+        return slotAdmission.admit(booking.getDateTime(), () -> {
+            slotAdmission.reserve(booking.getDateTime(), SlotAdmission.seatsHeldBy(booking));
+            Booking saved = bookingRepository.save(booking);
+            availabilityService.added(saved);
+            eventRecorder.created(saved);
+            return saved;
+        });
     }
 
     public Optional<Booking> update(Long id, Booking updated) {
-        return bookingRepository.findById(id)
+        return update(id, updated, null);
+    }
+
+    /**
+     * Full update. When {@code expectedVersion} is given the stored booking must still be
+     * at that version, otherwise {@link PreconditionFailedException} is thrown.
+     */
+    public Optional<Booking> update(Long id, Booking updated, Long expectedVersion) {
+        return slotAdmission.admit(updated.getDateTime(), () -> bookingRepository.findById(id)
                 .map(existing -> {
+                    if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+                        throw new PreconditionFailedException(id, expectedVersion);
+                    }
+                    slotAdmission.release(existing.getDateTime(), SlotAdmission.seatsHeldBy(existing));
+                    slotAdmission.reserve(updated.getDateTime(), SlotAdmission.seatsHeldBy(updated));
+                    AvailabilityService.Delta delta = new AvailabilityService.Delta().remove(existing);
                     existing.setName(updated.getName());
                     existing.setEmail(updated.getEmail());
                     existing.setDateTime(updated.getDateTime());
                     existing.setNumberOfPeople(updated.getNumberOfPeople());
                     existing.setStatus(updated.getStatus());
-                    return bookingRepository.save(existing);
-                });
+                    availabilityService.apply(delta.add(existing));
+                    cacheInvalidator.invalidate(id);
+                    // Flush so the returned version (and ETag) is the one just written
+                    Booking saved = bookingRepository.saveAndFlush(existing);
+                    eventRecorder.updated(saved);
+                    return saved;
+                }));
     }
 
+    /**
+     * Changes only the status: reads the booking's status and version, checks the
+     * {@link BookingStatus} transition and, when given, {@code expectedVersion}, then moves
+     * it with one UPDATE guarded by the version it read. The booking's slot is locked
+     * before the UPDATE locks the booking, the order every writer takes them in. A
+     * concurrent change in between makes the UPDATE miss, and the decision is taken again
+     * on a fresh read. Cancelling releases the booking's seats in the same transaction.
+     */
+    @Transactional
+    public StatusChange changeStatus(Long id, BookingStatus status, Long expectedVersion) {
+        Set<BookingStatus> from = status.allowedSources();
+        while (true) {
+            Optional<StatusSnapshot> found = bookingRepository.findStatusSnapshot(id);
+            if (found.isEmpty()) {
+                return StatusChange.NOT_FOUND;
+            }
+            StatusSnapshot current = found.get();
+            if (!from.contains(current.status())) {
+                // Same status and no version to check: a retried request whose first attempt went through
+                return current.status() == status && expectedVersion == null
+                        ? StatusChange.APPLIED
+                        : StatusChange.INVALID_TRANSITION;
+            }
+            if (expectedVersion != null && expectedVersion != current.version()) {
+                return StatusChange.PRECONDITION_FAILED;
+            }
+            slotAdmission.lockSlots(List.of(current.slotTime()));
+            if (bookingRepository.updateStatusAtVersion(id, current.version(), status) == 0) {
+                continue;
+            }
+            if (status == BookingStatus.CANCELLED) {
+                slotAdmission.release(current.slotTime(), current.seats());
+            }
+            availabilityService.statusChanged(id, current.status(), status);
+            cacheInvalidator.invalidate(id);
+            eventRecorder.statusChanged(id, status);
+            return StatusChange.APPLIED;
+        }
+    }
+
+    /**
+     * Moves every id that is in an allowed source status to {@code status}: their slots
+     * are locked first, then one locking read of the affected rows, one release per slot
+     * when cancelling, one UPDATE. A row that moves to another slot meanwhile is skipped.
+     */
+    @Transactional
+    public BulkStatusResult changeStatusAll(List<Long> ids, BookingStatus status) {
+        Set<BookingStatus> from = status.allowedSources();
+        List<Long> applied = applyStatus(from.isEmpty()
+                ? List.of()
+                : lockInSlotOrder(ids, slotTimes -> bookingRepository.lockSeatHolds(ids, from, slotTimes)), status);
+        Set<Long> appliedSet = new HashSet<>(applied);
+        List<Long> skipped = ids.stream().filter(id -> !appliedSet.contains(id)).toList();
+        return new BulkStatusResult(applied, skipped);
+    }
+
+    /**
+     * Cancels those of {@code ids} that are still PENDING and were created at or before
+     * {@code createdBefore}, as {@link #changeStatusAll} would, slots first. Rows another
+     * transaction holds locked are skipped. Returns the ids that expired.
+     */
+    @Transactional
+    public List<Long> expire(Collection<Long> ids, LocalDateTime createdBefore) {
+        return applyStatus(lockInSlotOrder(ids,
+                        slotTimes -> bookingRepository.lockExpirable(ids, BookingStatus.PENDING, createdBefore, slotTimes)),
+                BookingStatus.CANCELLED);
+    }
+
+    @Transactional
     public void delete(Long id) {
+        bookingRepository.findById(id).ifPresent(existing -> {
+            slotAdmission.release(existing.getDateTime(), SlotAdmission.seatsHeldBy(existing));
+            availabilityService.removed(existing);
+            eventRecorder.deleted(id);
+        });
         bookingRepository.deleteById(id);
+        cacheInvalidator.invalidate(id);
+    }
+
+    /**
+     * Deletes up to {@code limit} of the oldest bookings in {@code statuses} that start
+     * before {@code before}: their slots are locked first, then one locking read of the
+     * rows, one release per slot, one DELETE. Returns how many were deleted; fewer than
+     * {@code limit} means none are left, apart from rows another transaction held locked.
+     */
+    @Transactional
+    public int deleteChunk(Collection<BookingStatus> statuses, LocalDateTime before, int limit) {
+        List<Long> candidates = bookingRepository.findDeletableIds(statuses, before, PageRequest.ofSize(limit));
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        List<SeatHold> holds = lockInSlotOrder(candidates,
+                slotTimes -> bookingRepository.lockDeletable(candidates, statuses, before, slotTimes));
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = holds.stream().map(SeatHold::bookingId).toList();
+        int deleted = bookingRepository.deleteByIdsBefore(ids, before);
+        holds.stream()
+                .filter(hold -> hold.status() != BookingStatus.CANCELLED)
+                .collect(Collectors.groupingBy(SeatHold::slotTime, TreeMap::new,
+                        Collectors.summingInt(SeatHold::seats)))
+                .forEach(slotAdmission::release);
+        AvailabilityService.Delta delta = new AvailabilityService.Delta();
+        holds.forEach(hold -> delta.add(hold.slotTime(), hold.status(), -hold.seats(), -1));
+        availabilityService.apply(delta);
+        cacheInvalidator.invalidate(ids);
+        ids.forEach(eventRecorder::deleted);
+        return deleted;
+    }
+
+    /**
+     * Locks the slots {@code ids} are in, then the rows {@code lockHolds} selects within them.
+     * Slots are read without locks, so a row may move before its slot is locked; reading
+     * again until no new slot turns up keeps the slots first and the bookings after.
+     */
+    private List<SeatHold> lockInSlotOrder(Collection<Long> ids,
+                                           Function<Collection<LocalDateTime>, List<SeatHold>> lockHolds) {
+        Set<LocalDateTime> locked = new TreeSet<>();
+        while (true) {
+            Set<LocalDateTime> unlocked = new TreeSet<>(bookingRepository.findSlotTimes(ids));
+            unlocked.removeAll(locked);
+            if (unlocked.isEmpty()) {
+                return locked.isEmpty() ? List.of() : lockHolds.apply(locked);
+            }
+            slotAdmission.lockSlots(unlocked);
+            locked.addAll(unlocked);
+        }
+    }
+
+    // Moves locked rows to status with one UPDATE, releasing seats once per slot when cancelling
+    private List<Long> applyStatus(List<SeatHold> holds, BookingStatus status) {
+        List<Long> applied = holds.stream().map(SeatHold::bookingId).toList();
+        if (applied.isEmpty()) {
+            return applied;
+        }
+        bookingRepository.updateStatusForIds(applied, status);
+        if (status == BookingStatus.CANCELLED) {
+            holds.stream()
+                    .collect(Collectors.groupingBy(SeatHold::slotTime, TreeMap::new,
+                            Collectors.summingInt(SeatHold::seats)))
+                    .forEach(slotAdmission::release);
+        }
+        AvailabilityService.Delta delta = new AvailabilityService.Delta();
+        holds.forEach(hold -> delta
+                .add(hold.slotTime(), hold.status(), -hold.seats(), -1)
+                .add(hold.slotTime(), status, hold.seats(), 1));
+        availabilityService.apply(delta);
+        cacheInvalidator.invalidate(applied);
+        applied.forEach(id -> eventRecorder.statusChanged(id, status));
+        return applied;
+    }
+
+    private static String nextCursor(List<BookingSummary> items, int limit) {
+        return items.size() < limit ? null : BookingCursor.of(items.get(items.size() - 1)).encode();
     }
-}
\ No newline at end of file
+}
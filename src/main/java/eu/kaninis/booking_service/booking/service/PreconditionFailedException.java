@@ -0,0 +1,12 @@
+package eu.kaninis.booking_service.booking.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(Long id, long expectedVersion) {
+        super("Booking " + id + " is no longer at version " + expectedVersion);
+    }
+}
@@ -0,0 +1,175 @@
+package eu.kaninis.booking_service.booking.service;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.SlotCapacity;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for per-slot seat capacity.
+ * <p>
+ * Within a node, admissions for the same slot are serialized on a striped lock so
+ * they do not pile up on the slot's row lock while holding pooled connections.
+ * Across nodes, {@link SlotCapacityRepository#tryReserve} is the single source of
+ * truth: a conditional UPDATE that only succeeds while seats remain. A slot's row is
+ * created on first use with the seats its existing bookings already hold.
+ */
+@Service
+public class SlotAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotAdmission.class);
+
+    private final SlotCapacityRepository slotCapacityRepository;
+    private final AvailabilityService availabilityService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final int defaultCapacity;
+    private final ReentrantLock[] stripes;
+
+    public SlotAdmission(SlotCapacityRepository slotCapacityRepository,
+                         AvailabilityService availabilityService,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${booking.slots.default-capacity:40}") int defaultCapacity,
+                         @Value("${booking.slots.lock-stripes:64}") int lockStripes) {
+        this.slotCapacityRepository = slotCapacityRepository;
+        this.availabilityService = availabilityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultCapacity = defaultCapacity;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, lockStripes - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public static int seatsHeldBy(Booking booking) {
+        return booking.getStatus() == BookingStatus.CANCELLED ? 0 : booking.getNumberOfPeople();
+    }
+
+    /**
+     * Runs {@code work} in a transaction while holding the stripe lock for {@code slotTime}.
+     * Calls to {@link #reserve} for that slot should happen inside {@code work}.
+     */
+    public <T> T admit(LocalDateTime slotTime, Supplier<T> work) {
+        return admitAll(List.of(slotTime), work);
+    }
+
+    /**
+     * Like {@link #admit} for several slots at once. Stripes are taken in index order
+     * so concurrent multi-slot admissions cannot deadlock each other.
+     */
+    public <T> T admitAll(Collection<LocalDateTime> slotTimes, Supplier<T> work) {
+        slotTimes.forEach(this::ensureSlot);
+        int[] stripeIndexes = slotTimes.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        for (int index : stripeIndexes) {
+            stripes[index].lock();
+        }
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+                stripes[stripeIndexes[i]].unlock();
+            }
+        }
+    }
+
+    public void reserve(LocalDateTime slotTime, int seats) {
+        if (!tryReserve(slotTime, seats)) {
+            throw new SlotFullException(slotTime, seats);
+        }
+    }
+
+    public boolean tryReserve(LocalDateTime slotTime, int seats) {
+        return seats <= 0 || slotCapacityRepository.tryReserve(slotTime, seats) > 0;
+    }
+
+    public void release(LocalDateTime slotTime, int seats) {
+        if (seats > 0 && slotCapacityRepository.release(slotTime, seats) == 0) {
+            // The booking change still goes ahead; only the counter is off
+            log.warn("Slot {} has fewer than {} seats reserved; reserved has drifted from bookings", slotTime, seats);
+        }
+    }
+
+    /**
+     * Locks the slots' capacity rows, then their availability rows, in the order writers
+     * take them, so bookings in those slots can be locked next without inverting it.
+     * Slots without rows are left alone.
+     */
+    public void lockSlots(Collection<LocalDateTime> slotTimes) {
+        if (slotTimes.isEmpty()) {
+            return;
+        }
+        slotCapacityRepository.lockAll(slotTimes);
+        availabilityService.lockRows(slotTimes);
+    }
+
+    /**
+     * Moves a reservation from one slot to another, or resizes it when both are the same
+     * slot. Leaves the original reservation untouched when the target has no room.
+     */
+    public boolean tryMove(LocalDateTime fromSlot, int fromSeats, LocalDateTime toSlot, int toSeats) {
+        if (fromSlot.equals(toSlot)) {
+            int delta = toSeats - fromSeats;
+            if (delta < 0) {
+                release(toSlot, -delta);
+                return true;
+            }
+            return tryReserve(toSlot, delta);
+        }
+        if (!tryReserve(toSlot, toSeats)) {
+            return false;
+        }
+        release(fromSlot, fromSeats);
+        return true;
+    }
+
+    public Optional<SlotCapacity> findSlot(LocalDateTime slotTime) {
+        return slotCapacityRepository.findById(slotTime);
+    }
+
+    public SlotCapacity setCapacity(LocalDateTime slotTime, int capacity) {
+        ensureSlot(slotTime);
+        slotCapacityRepository.updateCapacity(slotTime, capacity);
+        return slotCapacityRepository.findById(slotTime).orElseThrow();
+    }
+
+    private void ensureSlot(LocalDateTime slotTime) {
+        if (slotCapacityRepository.existsById(slotTime)) {
+            return;
+        }
+        try {
+            // Own transaction so a lost insert race with another node does not poison the caller's
+            newTransactionTemplate.executeWithoutResult(status -> {
+                slotCapacityRepository.create(slotTime, defaultCapacity);
+                availabilityService.createRows(slotTime);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another admission created the slot first
+        }
+    }
+
+    private int stripeIndex(LocalDateTime slotTime) {
+        int h = slotTime.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
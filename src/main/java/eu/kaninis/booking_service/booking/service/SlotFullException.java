@@ -0,0 +1,14 @@
+package eu.kaninis.booking_service.booking.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDateTime;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SlotFullException extends RuntimeException {
+
+    public SlotFullException(LocalDateTime slotTime, int seats) {
+        super("Slot " + slotTime + " has fewer than " + seats + " seats left");
+    }
+}
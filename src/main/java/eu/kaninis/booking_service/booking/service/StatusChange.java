@@ -0,0 +1,8 @@
+package eu.kaninis.booking_service.booking.service;
+
+public enum StatusChange {
+    APPLIED,
+    NOT_FOUND,
+    INVALID_TRANSITION,
+    PRECONDITION_FAILED
+}
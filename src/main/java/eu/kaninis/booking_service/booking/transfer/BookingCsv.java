@@ -0,0 +1,145 @@
+package eu.kaninis.booking_service.booking.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The CSV layout of {@code GET /bookings/export} and {@code POST /bookings/import}, written
+ * and read the way PostgreSQL's {@code COPY ... (FORMAT csv, HEADER)} does: an unquoted
+ * empty field is NULL, {@code ""} is an empty string, and timestamps use a space between
+ * date and time. Only the JDBC fallback goes through this class; COPY handles the
+ * format itself on PostgreSQL.
+ */
+final class BookingCsv {
+
+    static final List<String> COLUMNS = List.of(
+            "id", "name", "email", "date_time", "number_of_people", "status", "version", "created_at");
+
+    static final String HEADER = String.join(",", COLUMNS);
+
+    private static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter();
+
+    private BookingCsv() {
+    }
+
+    static String timestamp(LocalDateTime value) {
+        return value != null ? TIMESTAMP.format(value) : null;
+    }
+
+    // Accepts COPY's "2030-06-01 19:00:00" as well as ISO "2030-06-01T19:00"
+    static LocalDateTime parseTimestamp(String value) {
+        return value != null ? LocalDateTime.parse(value.trim().replace(' ', 'T')) : null;
+    }
+
+    /** Writes one record; {@code null} fields are left empty and unquoted. */
+    static void writeRecord(Writer out, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (fields[i] != null) {
+                writeField(out, fields[i].toString());
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /** Reads records one at a time from a buffered reader; quoted fields may span lines. */
+    static final class RecordReader implements AutoCloseable {
+
+        private final Reader in;
+        private long line = 1;
+
+        RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        long line() {
+            return line;
+        }
+
+        /** Returns the next record, or {@code null} at the end of the input. */
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>(COLUMNS.size());
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean inQuotes = false;
+            while (true) {
+                if (inQuotes) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field on line " + line);
+                    }
+                    if (c == '"') {
+                        int following = in.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty() && !quoted) {
+                    inQuotes = true;
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(value(field, quoted));
+                    field.setLength(0);
+                    quoted = false;
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(value(field, quoted));
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+
+        private static String value(StringBuilder field, boolean quoted) {
+            return field.isEmpty() && !quoted ? null : field.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
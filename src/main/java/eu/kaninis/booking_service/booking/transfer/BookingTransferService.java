@@ -0,0 +1,461 @@
+package eu.kaninis.booking_service.booking.transfer;
+
+import eu.kaninis.booking_service.booking.cache.BookingCacheInvalidator;
+import eu.kaninis.booking_service.booking.model.BookingImportResult;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.service.SlotFullException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk CSV export and import of bookings without entities. On PostgreSQL both directions
+ * go through the driver's {@code COPY}, so rows stream between the socket and the client
+ * in constant memory.
+ * <p>
+ * An import loads the file into a temporary staging table and then works on whole sets:
+ * rows without an id are inserted with ids from {@code bookings_seq}, rows whose id
+ * exists replace that booking (its version goes up by one), and rows with an unknown id
+ * are skipped. The affected slots are locked first, then the bookings. Seat
+ * reservations and {@code slot_availability} are recounted for every slot the import
+ * touched, and an import that would overbook a slot is rolled back as a whole. Each inserted or changed
+ * booking gets its outbox event in the same transaction.
+ */
+@Service
+public class BookingTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingTransferService.class);
+
+    static final String STAGING = "booking_import";
+    static final String STAGING_SLOTS = "booking_import_slots";
+
+    private static final String COLUMN_LIST = String.join(", ", BookingCsv.COLUMNS);
+    private static final String EXPORT_QUERY = "SELECT " + COLUMN_LIST + " FROM bookings";
+    private static final String STAGING_COLUMNS = """
+            id bigint, name varchar(255), email varchar(255), date_time timestamp(6), number_of_people integer,
+            status varchar(255), version bigint, created_at timestamp(6), action varchar(16)""";
+    private static final String INSERT = "INSERT";
+    private static final String UPDATE = "UPDATE";
+    private static final String UNCHANGED = "UNCHANGED";
+    private static final String SKIP = "SKIP";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingCacheInvalidator cacheInvalidator;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int defaultCapacity;
+    private final int fetchSize;
+    private final int batchSize;
+
+    public BookingTransferService(JdbcTemplate jdbcTemplate, BookingCacheInvalidator cacheInvalidator,
+                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${booking.slots.default-capacity:40}") int defaultCapacity,
+                                  @Value("${booking.transfer.fetch-size:10000}") int fetchSize,
+                                  @Value("${booking.transfer.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+        this.meterRegistry = meterRegistry;
+        this.defaultCapacity = defaultCapacity;
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+    }
+
+    /** Writes every booking to {@code out} as CSV with a header line. Returns the row count. */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) {
+        long start = System.nanoTime();
+        long rows = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                if (TransferDialect.of(connection) == TransferDialect.POSTGRESQL) {
+                    return connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut("COPY (" + EXPORT_QUERY + ") TO STDOUT WITH (FORMAT csv, HEADER)", out);
+                }
+                return exportRows(connection, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        log.info("Exported {} bookings in {} ms", rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        recordRows("export", rows);
+        return rows;
+    }
+
+    /**
+     * Merges the CSV in {@code in}, laid out as {@link #export} writes it, into
+     * {@code bookings} in one transaction. {@code version} is ignored and
+     * {@code created_at} only applies to inserted rows, which default to now.
+     *
+     * @throws InvalidImportException when the file or any of its rows is malformed
+     * @throws SlotFullException      when the import would take a slot over its capacity
+     */
+    @Transactional
+    public BookingImportResult importCsv(InputStream in) {
+        long start = System.nanoTime();
+        TransferDialect dialect = Objects.requireNonNull(
+                jdbcTemplate.execute((ConnectionCallback<TransferDialect>) TransferDialect::of));
+        jdbcTemplate.execute(dialect.createTemporaryTable(STAGING, STAGING_COLUMNS));
+        jdbcTemplate.execute(dialect.createTemporaryTable(STAGING_SLOTS,
+                "slot_time timestamp(6) NOT NULL PRIMARY KEY, reserved_before integer"));
+
+        load(dialect, in);
+        validate();
+        lockSlots();
+        lockExisting();
+        classify(dialect);
+        merge();
+        recount();
+        checkCapacity();
+        recordEvents(dialect);
+
+        BookingImportResult result = counts();
+        if (result.updated() > 0) {
+            cacheInvalidator.invalidateAll();
+        }
+        log.info("Imported bookings in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result);
+        recordRows("import", result.inserted() + result.updated() + result.unchanged() + result.skipped());
+        return result;
+    }
+
+    private long exportRows(Connection connection, OutputStream out) throws SQLException, IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(BookingCsv.HEADER);
+        writer.write('\n');
+        long rows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY)) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    BookingCsv.writeRecord(writer,
+                            rs.getObject(1, Long.class), rs.getString(2), rs.getString(3),
+                            BookingCsv.timestamp(rs.getObject(4, LocalDateTime.class)), rs.getObject(5, Integer.class),
+                            rs.getString(6), rs.getObject(7, Long.class),
+                            BookingCsv.timestamp(rs.getObject(8, LocalDateTime.class)));
+                    rows++;
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void load(TransferDialect dialect, InputStream in) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                if (dialect == TransferDialect.POSTGRESQL) {
+                    return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                            "COPY " + STAGING + " (" + COLUMN_LIST + ") FROM STDIN WITH (FORMAT csv, HEADER MATCH)", in);
+                }
+                return loadRows(connection, in);
+            } catch (SQLException e) {
+                // Class 22 covers unparsable values and a header that does not match
+                if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                    throw new InvalidImportException(e.getMessage(), e);
+                }
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (dialect == TransferDialect.POSTGRESQL) {
+            // Autovacuum never sees temporary tables; the joins below need row estimates
+            jdbcTemplate.execute("ANALYZE " + STAGING);
+        }
+    }
+
+    // Same contract as COPY ... HEADER MATCH, one JDBC batch per batch-size rows
+    private long loadRows(Connection connection, InputStream in) throws SQLException, IOException {
+        BookingCsv.RecordReader reader = new BookingCsv.RecordReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (!BookingCsv.COLUMNS.equals(header)) {
+            throw new InvalidImportException("Header must be " + BookingCsv.HEADER);
+        }
+        long rows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + STAGING + " (" + COLUMN_LIST + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() != BookingCsv.COLUMNS.size()) {
+                    throw new InvalidImportException("Line " + (reader.line() - 1) + " has " + record.size()
+                            + " fields, expected " + BookingCsv.COLUMNS.size());
+                }
+                try {
+                    setLong(statement, 1, record.get(0));
+                    statement.setString(2, record.get(1));
+                    statement.setString(3, record.get(2));
+                    setTimestamp(statement, 4, record.get(3));
+                    setInt(statement, 5, record.get(4));
+                    statement.setString(6, record.get(5));
+                    setLong(statement, 7, record.get(6));
+                    setTimestamp(statement, 8, record.get(7));
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw new InvalidImportException("Line " + (reader.line() - 1) + ": " + e.getMessage(), e);
+                }
+                statement.addBatch();
+                if (++rows % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            if (rows % batchSize != 0) {
+                statement.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    private void validate() {
+        String statuses = Arrays.stream(BookingStatus.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", "));
+        Long invalid = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM %s
+                WHERE name IS NULL OR TRIM(name) = '' OR email IS NULL OR email NOT LIKE '%%_@_%%'
+                   OR date_time IS NULL OR number_of_people IS NULL OR number_of_people < 1
+                   OR status IS NULL OR status NOT IN (%s)
+                """.formatted(STAGING, statuses), Long.class);
+        if (invalid != null && invalid > 0) {
+            throw new InvalidImportException(invalid + " rows lack a name, email, date_time, "
+                    + "number_of_people of at least 1 or a known status");
+        }
+        Long duplicated = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM (SELECT id FROM %s WHERE id IS NOT NULL GROUP BY id HAVING COUNT(*) > 1) d
+                """.formatted(STAGING), Long.class);
+        if (duplicated != null && duplicated > 0) {
+            throw new InvalidImportException(duplicated + " ids appear more than once");
+        }
+    }
+
+    // Row locks only, taken after the slot locks; the ids stream past in fetch-size chunks and are not kept
+    private void lockExisting() {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT b.id FROM bookings b WHERE b.id IN (SELECT id FROM " + STAGING + ") FOR UPDATE");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+        });
+    }
+
+    // Sets action on every staged row and hands out ids to the ones being inserted
+    private void classify(TransferDialect dialect) {
+        jdbcTemplate.update("""
+                MERGE INTO %s i
+                USING bookings b ON b.id = i.id
+                WHEN MATCHED AND b.name = i.name AND b.email = i.email AND b.date_time = i.date_time
+                    AND b.number_of_people = i.number_of_people AND b.status = i.status
+                    THEN UPDATE SET action = '%s'
+                WHEN MATCHED THEN UPDATE SET action = '%s'
+                """.formatted(STAGING, UNCHANGED, UPDATE));
+        jdbcTemplate.update("""
+                UPDATE %s
+                SET action = CASE WHEN id IS NULL THEN '%s' ELSE '%s' END,
+                    id = COALESCE(id, %s)
+                WHERE action IS NULL
+                """.formatted(STAGING, INSERT, SKIP, dialect.nextValue("bookings_seq")));
+    }
+
+    /**
+     * Collects the slots the import can add to or move out of, creates the ones that do not
+     * exist yet and locks them in key order. This runs before the bookings are locked, the
+     * same order as {@code BookingService.update}, so the two cannot deadlock. Writers that
+     * change seats wait on these rows, so the recount afterwards cannot miss one of their
+     * changes. A booking moved after its slot was read is caught by the next round; once
+     * its current slot is held nobody can move it again.
+     */
+    private void lockSlots() {
+        while (collectSlots() > 0) {
+            createAndLockSlots();
+        }
+        jdbcTemplate.update("""
+                UPDATE %s SET reserved_before = (SELECT c.reserved FROM slot_capacity c
+                                                 WHERE c.slot_time = %1$s.slot_time)
+                """.formatted(STAGING_SLOTS));
+    }
+
+    // Rows are not classified yet: every row that is not skipped, at its old and its new time
+    private int collectSlots() {
+        return jdbcTemplate.update("""
+                INSERT INTO %1$s (slot_time)
+                SELECT t.slot_time FROM (
+                    SELECT i.date_time AS slot_time FROM %2$s i
+                    WHERE i.id IS NULL OR EXISTS (SELECT 1 FROM bookings b WHERE b.id = i.id)
+                    UNION
+                    SELECT b.date_time FROM bookings b JOIN %2$s i ON i.id = b.id
+                ) t
+                WHERE NOT EXISTS (SELECT 1 FROM %1$s s WHERE s.slot_time = t.slot_time)
+                """.formatted(STAGING_SLOTS, STAGING));
+    }
+
+    private void createAndLockSlots() {
+        jdbcTemplate.update("""
+                INSERT INTO slot_capacity (slot_time, capacity, reserved)
+                SELECT s.slot_time, ?, 0 FROM %s s
+                WHERE NOT EXISTS (SELECT 1 FROM slot_capacity c WHERE c.slot_time = s.slot_time)
+                """.formatted(STAGING_SLOTS), defaultCapacity);
+        String statuses = Arrays.stream(BookingStatus.values())
+                .map(status -> "select '" + status.name() + "' as status")
+                .collect(Collectors.joining(" union all "));
+        jdbcTemplate.update("""
+                INSERT INTO slot_availability (slot_time, status, seats, bookings)
+                SELECT s.slot_time, st.status, 0, 0
+                FROM %s s CROSS JOIN (%s) st
+                WHERE NOT EXISTS (SELECT 1 FROM slot_availability a
+                                  WHERE a.slot_time = s.slot_time AND a.status = st.status)
+                """.formatted(STAGING_SLOTS, statuses));
+        jdbcTemplate.query("""
+                SELECT c.slot_time FROM slot_capacity c
+                WHERE c.slot_time IN (SELECT slot_time FROM %s)
+                ORDER BY c.slot_time FOR UPDATE
+                """.formatted(STAGING_SLOTS), rs -> {
+        });
+        // Statuses in enum order, as AvailabilityService.Delta applies them
+        String statusOrder = Arrays.stream(BookingStatus.values())
+                .map(status -> "WHEN '" + status.name() + "' THEN " + status.ordinal())
+                .collect(Collectors.joining(" ", "CASE a.status ", " END"));
+        jdbcTemplate.query("""
+                SELECT a.slot_time FROM slot_availability a
+                WHERE a.slot_time IN (SELECT slot_time FROM %s)
+                ORDER BY a.slot_time, %s FOR UPDATE
+                """.formatted(STAGING_SLOTS, statusOrder), rs -> {
+        });
+    }
+
+    private void merge() {
+        jdbcTemplate.update("""
+                MERGE INTO bookings b
+                USING (SELECT * FROM %s WHERE action = '%s') i ON b.id = i.id
+                WHEN MATCHED THEN UPDATE SET name = i.name, email = i.email, date_time = i.date_time,
+                    number_of_people = i.number_of_people, status = i.status, version = COALESCE(b.version, 0) + 1
+                """.formatted(STAGING, UPDATE));
+        jdbcTemplate.update("""
+                INSERT INTO bookings (id, name, email, date_time, number_of_people, status, version, created_at)
+                SELECT id, name, email, date_time, number_of_people, status, 0, COALESCE(created_at, LOCALTIMESTAMP)
+                FROM %s WHERE action = '%s'
+                """.formatted(STAGING, INSERT));
+    }
+
+    // Same statements as AvailabilityService.rebuild(), limited to the locked slots
+    private void recount() {
+        jdbcTemplate.update("""
+                UPDATE slot_capacity
+                SET reserved = COALESCE((SELECT SUM(b.number_of_people) FROM bookings b
+                                         WHERE b.date_time = slot_capacity.slot_time
+                                           AND b.status <> '%s'), 0)
+                WHERE slot_time IN (SELECT slot_time FROM %s)
+                """.formatted(BookingStatus.CANCELLED.name(), STAGING_SLOTS));
+        jdbcTemplate.update("""
+                UPDATE slot_availability
+                SET seats = COALESCE((SELECT SUM(b.number_of_people) FROM bookings b
+                                      WHERE b.date_time = slot_availability.slot_time
+                                        AND b.status = slot_availability.status), 0),
+                    bookings = (SELECT COUNT(*) FROM bookings b
+                                WHERE b.date_time = slot_availability.slot_time
+                                  AND b.status = slot_availability.status)
+                WHERE slot_time IN (SELECT slot_time FROM %s)
+                """.formatted(STAGING_SLOTS));
+    }
+
+    // Slots that were already over capacity (after a lowered capacity) only fail if the import added to them
+    private void checkCapacity() {
+        jdbcTemplate.query("""
+                SELECT c.slot_time, c.reserved - s.reserved_before FROM slot_capacity c
+                JOIN %s s ON s.slot_time = c.slot_time
+                WHERE c.reserved > c.capacity AND c.reserved > s.reserved_before
+                ORDER BY c.slot_time
+                """.formatted(STAGING_SLOTS), (ResultSet rs) -> {
+            if (rs.next()) {
+                throw new SlotFullException(rs.getTimestamp(1).toLocalDateTime(), rs.getInt(2));
+            }
+            return null;
+        });
+    }
+
+    private void recordEvents(TransferDialect dialect) {
+        jdbcTemplate.update("""
+                INSERT INTO booking_outbox (id, booking_id, type, payload, created_at)
+                SELECT %s, b.id, CASE WHEN i.action = '%s' THEN 'CREATED' ELSE 'UPDATED' END, %s, CURRENT_TIMESTAMP
+                FROM %s i JOIN bookings b ON b.id = i.id
+                WHERE i.action IN ('%s', '%s')
+                """.formatted(dialect.nextValue("booking_outbox_seq"), INSERT, dialect.bookingJson("b"),
+                STAGING, INSERT, UPDATE));
+    }
+
+    private BookingImportResult counts() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT action, COUNT(*) FROM " + STAGING + " GROUP BY action",
+                rs -> {
+                    counts.put(rs.getString(1), rs.getLong(2));
+                });
+        return new BookingImportResult(counts.getOrDefault(INSERT, 0L), counts.getOrDefault(UPDATE, 0L),
+                counts.getOrDefault(UNCHANGED, 0L), counts.getOrDefault(SKIP, 0L));
+    }
+
+    private void recordRows(String direction, long rows) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder("booking.transfer.rows")
+                    .description("Rows per bulk export or import")
+                    .tag("direction", direction)
+                    .register(registry)
+                    .record(rows);
+        }
+    }
+
+    private static void setLong(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, Long.parseLong(value.trim()));
+        }
+    }
+
+    private static void setInt(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, Integer.parseInt(value.trim()));
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, String value) throws SQLException {
+        LocalDateTime timestamp = BookingCsv.parseTimestamp(value);
+        if (timestamp == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, Timestamp.valueOf(timestamp));
+        }
+    }
+}
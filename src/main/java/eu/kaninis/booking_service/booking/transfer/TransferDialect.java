@@ -0,0 +1,71 @@
+package eu.kaninis.booking_service.booking.transfer;
+
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The few statements of a bulk transfer that PostgreSQL and H2 spell differently. On
+ * PostgreSQL, data moves through COPY; H2, used by the tests, falls back to JDBC.
+ */
+enum TransferDialect {
+
+    POSTGRESQL {
+        @Override
+        String createTemporaryTable(String table, String columns) {
+            return "CREATE TEMPORARY TABLE " + table + " (" + columns + ") ON COMMIT DROP";
+        }
+
+        @Override
+        String nextValue(String sequence) {
+            return "nextval('" + sequence + "')";
+        }
+
+        @Override
+        String bookingJson(String alias) {
+            return "json_build_object('id', %1$s.id, 'name', %1$s.name, 'email', %1$s.email, 'dateTime', %1$s.date_time, "
+                    .formatted(alias)
+                    + "'numberOfPeople', %1$s.number_of_people, 'status', %1$s.status, 'version', %1$s.version)::text"
+                    .formatted(alias);
+        }
+    },
+
+    H2 {
+        // Without TRANSACTIONAL, H2 commits the open transaction on CREATE TABLE. Status
+        // columns are enums under H2, so they are cast before going into JSON.
+        @Override
+        String createTemporaryTable(String table, String columns) {
+            return "CREATE LOCAL TEMPORARY TABLE " + table + " (" + columns + ") ON COMMIT DROP TRANSACTIONAL";
+        }
+
+        @Override
+        String nextValue(String sequence) {
+            return "NEXT VALUE FOR " + sequence;
+        }
+
+        @Override
+        String bookingJson(String alias) {
+            return "CAST(JSON_OBJECT('id': %1$s.id, 'name': %1$s.name, 'email': %1$s.email, "
+                    .formatted(alias)
+                    + "'dateTime': REPLACE(CAST(%1$s.date_time AS VARCHAR), ' ', 'T'), "
+                    .formatted(alias)
+                    + "'numberOfPeople': %1$s.number_of_people, 'status': CAST(%1$s.status AS VARCHAR), "
+                    .formatted(alias)
+                    + "'version': %1$s.version) AS VARCHAR)"
+                    .formatted(alias);
+        }
+    };
+
+    static TransferDialect of(Connection connection) throws SQLException {
+        return connection.isWrapperFor(PGConnection.class) ? POSTGRESQL : H2;
+    }
+
+    /** A table private to the transaction, dropped when it commits or rolls back. */
+    abstract String createTemporaryTable(String table, String columns);
+
+    abstract String nextValue(String sequence);
+
+    /** The booking in row {@code alias} as the JSON text the outbox carries for it. */
+    abstract String bookingJson(String alias);
+}
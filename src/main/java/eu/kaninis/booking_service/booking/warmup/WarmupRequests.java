@@ -0,0 +1,31 @@
+package eu.kaninis.booking_service.booking.warmup;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Recognises the requests {@link WarmupRunner} sends to its own node: they carry
+ * {@link #HEADER} and come from the loopback address.
+ */
+public final class WarmupRequests {
+
+    public static final String HEADER = "X-Booking-Warmup";
+
+    private WarmupRequests() {
+    }
+
+    public static boolean isWarmup(HttpServletRequest request) {
+        return request.getHeader(HEADER) != null && isLoopback(request.getRemoteAddr());
+    }
+
+    // The remote address is always a literal, so this never resolves a name
+    private static boolean isLoopback(String address) {
+        try {
+            return address != null && InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package eu.kaninis.booking_service.booking.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends rounds of representative requests through this node's own HTTP port before it
+ * reports ready, so the first real requests do not pay for lazy initialization and
+ * interpreted code: Tomcat and the filters, JSON and CBOR, compression, validation, the
+ * queries and the cache. Spring Boot switches readiness to ACCEPTING_TRAFFIC only after
+ * every runner has returned. Nothing is written; writes are exercised up to validation.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final int PAGE_SIZE = 50;
+
+    private final Environment environment;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int rounds;
+    private final int threads;
+    private final Duration maxDuration;
+
+    public WarmupRunner(Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${booking.warmup.rounds:300}") int rounds,
+                        @Value("${booking.warmup.threads:4}") int threads,
+                        @Value("${booking.warmup.max-duration:30s}") Duration maxDuration) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.rounds = rounds;
+        this.threads = threads;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int port = environment.getRequiredProperty("local.server.port", Integer.class);
+        RestClient client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(WarmupRequests.HEADER, "true")
+                .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
+                })
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        AtomicInteger requests = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    try {
+                        for (int round = 0; round < rounds && System.nanoTime() - deadline < 0; round++) {
+                            requests.addAndGet(round(client));
+                        }
+                    } catch (RestClientException e) {
+                        log.warn("Warm-up stopped early: {}", e.getMessage());
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        log.info("Warm-up sent {} requests in {} ms", requests.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Timer.builder("booking.warmup")
+                    .description("Time spent warming up before reporting ready")
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // One pass over the read paths clients use most, plus a rejected create; returns the request count
+    private int round(RestClient client) {
+        String today = LocalDate.now().atStartOfDay().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        String nextWeek = LocalDate.now().plusDays(7).atStartOfDay().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        int sent = 0;
+
+        JsonNode page = client.get().uri("/bookings?limit={limit}", PAGE_SIZE).retrieve().body(JsonNode.class);
+        client.get().uri("/bookings?limit={limit}&fields=summary", PAGE_SIZE).retrieve().toBodilessEntity();
+        client.get().uri("/bookings?limit={limit}", PAGE_SIZE)
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.ACCEPT_ENCODING, "zstd")
+                .retrieve().toBodilessEntity();
+        client.get().uri("/bookings/search?status=PENDING&status=CONFIRMED&from={from}&limit={limit}", today, PAGE_SIZE)
+                .retrieve().toBodilessEntity();
+        client.get().uri("/availability?from={from}&to={to}", today, nextWeek).retrieve().toBodilessEntity();
+        client.post().uri("/bookings").contentType(MediaType.APPLICATION_JSON).body("{}")
+                .retrieve().toBodilessEntity();
+        sent += 6;
+
+        JsonNode items = page != null ? page.path("items") : null;
+        if (items != null && !items.isEmpty()) {
+            long id = items.get(0).path("id").asLong();
+            ResponseEntity<Void> found = client.get().uri("/bookings/{id}", id).retrieve().toBodilessEntity();
+            String etag = found.getHeaders().getETag();
+            if (etag != null) {
+                client.get().uri("/bookings/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .retrieve().toBodilessEntity();
+                sent++;
+            }
+            client.get().uri("/bookings/{id}?fields=summary", id).retrieve().toBodilessEntity();
+            sent += 2;
+        }
+        return sent;
+    }
+}
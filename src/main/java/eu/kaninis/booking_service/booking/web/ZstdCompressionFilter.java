@@ -0,0 +1,271 @@
+package eu.kaninis.booking_service.booking.web;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compresses responses with zstd for clients that accept it; everything else is left to
+ * the container's gzip ({@code server.compression}). The first {@code min-response-size}
+ * bytes are held back, so small responses go out unchanged with their length, and bulk
+ * reads are compressed as they stream.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.compression.zstd.enabled", havingValue = "true", matchIfMissing = true)
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+    static final String ZSTD = "zstd";
+
+    private final List<MediaType> mimeTypes;
+    private final int minResponseSize;
+
+    public ZstdCompressionFilter(
+            @Value("${server.compression.mime-types:application/json,application/x-ndjson,application/cbor}") List<MediaType> mimeTypes,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        this.mimeTypes = mimeTypes;
+        this.minResponseSize = (int) minResponseSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.HEAD.matches(request.getMethod()) || !acceptsZstd(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        CompressingResponse compressing = new CompressingResponse(response);
+        chain.doFilter(request, compressing);
+        if (request.isAsyncStarted()) {
+            // Written from another thread after this returns; never hold its bytes back
+            compressing.decide(false);
+        } else {
+            compressing.finish();
+        }
+    }
+
+    // q=0 means "not acceptable"; any other weight is good enough to prefer zstd over gzip
+    static boolean acceptsZstd(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase(ZSTD)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean compressible(HttpServletResponse response) {
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null || response.getContentType() == null
+                || response.getStatus() == HttpServletResponse.SC_NO_CONTENT
+                || response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+        MediaType contentType = MediaType.parseMediaType(response.getContentType());
+        return mimeTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        private OutputStream target;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        // Only known once it is clear whether the body is compressed
+        @Override
+        public void setContentLengthLong(long length) {
+            contentLength = length;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (outputStream == null) {
+                ServletOutputStream delegate = getResponse().getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) throws IOException {
+                        CompressingResponse.this.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (flushable()) {
+                            target.flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                String encoding = getCharacterEncoding();
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
+                        encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (flushable()) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        // A flush below the threshold only gives away the chance to compress, unless the
+        // body can never be compressed anyway (event streams flush every event)
+        private boolean flushable() throws IOException {
+            if (target == null && !compressible((HttpServletResponse) getResponse())) {
+                decide(false);
+            }
+            return target != null;
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (target == null) {
+                head.write(bytes, offset, length);
+                if (head.size() < minResponseSize || (contentLength >= 0 && contentLength < minResponseSize)) {
+                    return;
+                }
+                decide(compressible((HttpServletResponse) getResponse()));
+                return;
+            }
+            target.write(bytes, offset, length);
+        }
+
+        void decide(boolean compress) throws IOException {
+            if (target != null) {
+                return;
+            }
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            OutputStream out = response.getOutputStream();
+            if (compress) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, ZSTD);
+                target = new ZstdOutputStream(out);
+            } else {
+                if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                }
+                target = out;
+            }
+            head.writeTo(target);
+            head.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                if (head.size() == 0 && outputStream == null) {
+                    if (contentLength >= 0) {
+                        getResponse().setContentLengthLong(contentLength);
+                    }
+                    return;
+                }
+                // Everything fitted below the threshold: send it as it is
+                contentLength = head.size();
+                decide(false);
+            }
+            if (target instanceof ZstdOutputStream zstd) {
+                zstd.close();
+            } else {
+                target.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+-- Schema as previously created by ddl-auto=update. Idempotent, so it also runs cleanly
+-- against databases that Hibernate created before migrations were introduced.
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS booking_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id               bigint       NOT NULL PRIMARY KEY,
+    name             varchar(255),
+    email            varchar(255),
+    date_time        timestamp(6),
+    number_of_people integer      NOT NULL,
+    status           varchar(255),
+    version          bigint
+);
+
+-- Older databases have an identity id and no version column
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version bigint;
+UPDATE bookings SET version = 0 WHERE version IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_date_time_status ON bookings (date_time, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_email ON bookings (email);
+
+CREATE TABLE IF NOT EXISTS slot_capacity (
+    slot_time timestamp(6) NOT NULL PRIMARY KEY,
+    capacity  integer      NOT NULL,
+    reserved  integer      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id           bigint                      NOT NULL PRIMARY KEY,
+    booking_id   bigint                      NOT NULL,
+    type         varchar(255)                NOT NULL,
+    payload      text                        NOT NULL,
+    created_at   timestamp(6) with time zone NOT NULL,
+    published_at timestamp(6) with time zone
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_published_at ON booking_outbox (published_at);
+
+-- Move the pooled sequences past ids handed out by the old identity column
+SELECT setval('bookings_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings) + 50,
+                       (SELECT last_value FROM bookings_seq)));
+SELECT setval('booking_outbox_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM booking_outbox) + 50,
+                       (SELECT last_value FROM booking_outbox_seq)));
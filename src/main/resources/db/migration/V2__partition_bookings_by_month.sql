@@ -0,0 +1,43 @@
+-- Range-partition bookings by month of date_time. Everything lands in the default
+-- partition here; BookingPartitionMaintenance splits it into monthly partitions at
+-- startup and detaches old months into bookings_archive (or a file) afterwards.
+
+ALTER TABLE bookings RENAME TO bookings_legacy;
+ALTER INDEX IF EXISTS bookings_pkey RENAME TO bookings_legacy_pkey;
+ALTER INDEX IF EXISTS idx_bookings_date_time_status RENAME TO idx_bookings_legacy_date_time_status;
+ALTER INDEX IF EXISTS idx_bookings_email RENAME TO idx_bookings_legacy_email;
+
+-- The partition key has to be part of the primary key; ids stay unique via bookings_seq
+CREATE TABLE bookings (
+    id               bigint       NOT NULL,
+    name             varchar(255),
+    email            varchar(255),
+    date_time        timestamp(6) NOT NULL,
+    number_of_people integer      NOT NULL,
+    status           varchar(255),
+    version          bigint,
+    PRIMARY KEY (id, date_time)
+) PARTITION BY RANGE (date_time);
+
+CREATE INDEX idx_bookings_date_time_status ON bookings (date_time, status);
+CREATE INDEX idx_bookings_email ON bookings (email);
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+INSERT INTO bookings (id, name, email, date_time, number_of_people, status, version)
+SELECT id, name, email, date_time, number_of_people, status, version
+FROM bookings_legacy;
+
+DROP TABLE bookings_legacy;
+
+CREATE TABLE bookings_archive (
+    id               bigint       NOT NULL PRIMARY KEY,
+    name             varchar(255),
+    email            varchar(255),
+    date_time        timestamp(6) NOT NULL,
+    number_of_people integer      NOT NULL,
+    status           varchar(255),
+    version          bigint
+);
+
+CREATE INDEX idx_bookings_archive_date_time ON bookings_archive (date_time);
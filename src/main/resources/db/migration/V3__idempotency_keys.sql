@@ -0,0 +1,11 @@
+CREATE TABLE idempotency_keys (
+    idempotency_key varchar(255)                NOT NULL PRIMARY KEY,
+    fingerprint     varchar(64)                 NOT NULL,
+    status_code     integer,
+    etag            varchar(255),
+    body            text,
+    created_at      timestamp(6) with time zone NOT NULL,
+    expires_at      timestamp(6) with time zone NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,8 @@
+CREATE TABLE booking_ingest_results (
+    tracking_id  uuid                        NOT NULL PRIMARY KEY,
+    outcome      varchar(255)                NOT NULL,
+    booking_id   bigint,
+    completed_at timestamp(6) with time zone NOT NULL
+);
+
+CREATE INDEX idx_booking_ingest_results_completed_at ON booking_ingest_results (completed_at);
@@ -0,0 +1,16 @@
+CREATE TABLE slot_availability (
+    slot_time timestamp(6) NOT NULL,
+    status    varchar(255) NOT NULL,
+    seats     integer      NOT NULL,
+    bookings  integer      NOT NULL,
+    PRIMARY KEY (slot_time, status)
+);
+
+INSERT INTO slot_availability (slot_time, status, seats, bookings)
+SELECT s.slot_time, st.status,
+       COALESCE((SELECT SUM(b.number_of_people) FROM bookings b
+                 WHERE b.date_time = s.slot_time AND b.status = st.status), 0),
+       (SELECT COUNT(*) FROM bookings b
+        WHERE b.date_time = s.slot_time AND b.status = st.status)
+FROM slot_capacity s
+CROSS JOIN (VALUES ('PENDING'), ('CONFIRMED'), ('CANCELLED')) AS st (status);
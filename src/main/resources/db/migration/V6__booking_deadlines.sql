@@ -0,0 +1,22 @@
+-- Creation time, from which PENDING bookings expire. Rows that are PENDING already start
+-- their hold now; the archive keeps the same column order as bookings.
+ALTER TABLE bookings ADD COLUMN created_at timestamp(6);
+ALTER TABLE bookings_archive ADD COLUMN created_at timestamp(6);
+UPDATE bookings SET created_at = LOCALTIMESTAMP WHERE status = 'PENDING';
+
+-- Only PENDING rows are ever looked up by creation time
+CREATE INDEX idx_bookings_pending_created_at ON bookings (created_at) WHERE status = 'PENDING';
+
+CREATE TABLE booking_reminders (
+    booking_id bigint                      NOT NULL PRIMARY KEY,
+    slot_time  timestamp(6)                NOT NULL,
+    sent_at    timestamp(6) with time zone NOT NULL
+);
+
+CREATE INDEX idx_booking_reminders_slot_time ON booking_reminders (slot_time);
+
+CREATE TABLE scheduler_leases (
+    name       varchar(255)                NOT NULL PRIMARY KEY,
+    owner      varchar(255)                NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Slot rows used to start at reserved = 0 even when bookings already existed at that time.
+-- Give every booking time a row and recount reserved from the bookings that hold seats.
+INSERT INTO slot_capacity (slot_time, capacity, reserved)
+SELECT DISTINCT b.date_time, ${default_capacity}, 0
+FROM bookings b
+WHERE NOT EXISTS (SELECT 1 FROM slot_capacity s WHERE s.slot_time = b.date_time);
+
+UPDATE slot_capacity
+SET reserved = COALESCE((SELECT SUM(b.number_of_people) FROM bookings b
+                         WHERE b.date_time = slot_capacity.slot_time
+                           AND b.status <> 'CANCELLED'), 0);
@@ -0,0 +1,16 @@
+-- Rows created after V5 started at zero even when bookings already existed at that time.
+-- Give every slot (V7 made one for each booking time) its rows and recount them all.
+INSERT INTO slot_availability (slot_time, status, seats, bookings)
+SELECT s.slot_time, st.status, 0, 0
+FROM slot_capacity s
+CROSS JOIN (VALUES ('PENDING'), ('CONFIRMED'), ('CANCELLED')) AS st (status)
+WHERE NOT EXISTS (SELECT 1 FROM slot_availability a
+                  WHERE a.slot_time = s.slot_time AND a.status = st.status);
+
+UPDATE slot_availability
+SET seats = COALESCE((SELECT SUM(b.number_of_people) FROM bookings b
+                      WHERE b.date_time = slot_availability.slot_time
+                        AND b.status = slot_availability.status), 0),
+    bookings = (SELECT COUNT(*) FROM bookings b
+                WHERE b.date_time = slot_availability.slot_time
+                  AND b.status = slot_availability.status);
@@ -1,9 +1,16 @@
 package eu.kaninis.booking_service.booking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import eu.kaninis.booking_service.booking.model.Booking;
 import eu.kaninis.booking_service.booking.model.BookingStatus;
 import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.service.AvailabilityService;
+import eu.kaninis.booking_service.booking.web.CborConfig;
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +21,23 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +56,12 @@ class BookingApiIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
     @BeforeEach
     void setUp() {
         bookingRepository.deleteAll();
@@ -74,6 +96,33 @@ class BookingApiIntegrationTest {
                 .andExpect(jsonPath("$[0].email", is("integration@example.com")));
     }
 
+    @Test
+    void getAllBookings_cborWithZstd_decodesToAllBookings() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            bookingRepository.save(new Booking("Guest " + i, "guest" + i + "@example.com",
+                    LocalDateTime.of(2025, 1, 1, 10, 0).plusHours(i), 2, BookingStatus.PENDING));
+        }
+
+        // Stora svar komprimeras med zstd när klienten accepterar det
+        byte[] body = mockMvc.perform(get("/bookings")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("Accept-Encoding", "gzip, zstd"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "zstd"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(body))) {
+            assertThat(CborConfig.cborMapper(objectMapper).readTree(in)).hasSize(200);
+        }
+
+        // Små svar skickas som de är
+        mockMvc.perform(get("/bookings/" + bookingRepository.findAll().get(0).getId())
+                        .header("Accept-Encoding", "zstd"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.name").exists());
+    }
+
     @Test
     void updateBooking_changesPersistedData() throws Exception {
         // Först spara en booking direkt via repository
@@ -103,6 +152,133 @@ class BookingApiIntegrationTest {
                 .andExpect(jsonPath("$.email", is("updated.integration@example.com")));
     }
 
+    @Test
+    void getAfterUpdate_doesNotServeCachedBooking() throws Exception {
+        Booking booking = bookingRepository.save(createSampleBooking());
+        Long id = booking.getId();
+
+        // Första GET fyller cachen
+        mockMvc.perform(get("/bookings/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("PENDING")));
+
+        Booking updateRequest = createSampleBooking();
+        updateRequest.setStatus(BookingStatus.CONFIRMED);
+        mockMvc.perform(put("/bookings/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/bookings/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CONFIRMED")));
+    }
+
+    @Test
+    void searchBookings_filtersOnRangeStatusAndEmail() throws Exception {
+        bookingRepository.save(new Booking("Evening", "evening@example.com",
+                LocalDateTime.of(2025, 1, 1, 19, 0), 2, BookingStatus.PENDING));
+        bookingRepository.save(new Booking("Evening Confirmed", "evening@example.com",
+                LocalDateTime.of(2025, 1, 1, 20, 0), 2, BookingStatus.CONFIRMED));
+        bookingRepository.save(new Booking("Lunch", "lunch@example.com",
+                LocalDateTime.of(2025, 1, 1, 12, 0), 2, BookingStatus.PENDING));
+
+        mockMvc.perform(get("/bookings/search")
+                        .param("from", "2025-01-01T17:00:00")
+                        .param("to", "2025-01-02T00:00:00")
+                        .param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Evening")));
+
+        mockMvc.perform(get("/bookings/search")
+                        .param("email", "evening@example.com")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Evening")))
+                .andExpect(jsonPath("$.nextCursor").isString());
+    }
+
+    @Test
+    void searchBookings_summaryFields_pagesWithoutPersonalData() throws Exception {
+        bookingRepository.save(new Booking("Evening", "evening@example.com",
+                LocalDateTime.of(2025, 1, 1, 19, 0), 2, BookingStatus.PENDING));
+        bookingRepository.save(new Booking("Late", "late@example.com",
+                LocalDateTime.of(2025, 1, 1, 21, 0), 3, BookingStatus.PENDING));
+
+        // Första sidan ger en cursor som fungerar för nästa sida
+        String first = mockMvc.perform(get("/bookings/search")
+                        .param("status", "PENDING")
+                        .param("limit", "1")
+                        .param("fields", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].numberOfPeople", is(2)))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.items[0].email").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(first).get("nextCursor").asText();
+
+        mockMvc.perform(get("/bookings/search")
+                        .param("status", "PENDING")
+                        .param("limit", "1")
+                        .param("cursor", cursor)
+                        .param("fields", "SUMMARY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].numberOfPeople", is(3)));
+    }
+
+    @Test
+    void updateBooking_staleIfMatch_returnsPreconditionFailed() throws Exception {
+        Booking booking = bookingRepository.saveAndFlush(createSampleBooking());
+        Long id = booking.getId();
+        String currentETag = "\"" + booking.getVersion() + "\"";
+
+        mockMvc.perform(put("/bookings/{id}", id)
+                        .header("If-Match", currentETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking())))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+
+        // Samma (nu gamla) version igen ska ge 412
+        mockMvc.perform(put("/bookings/{id}", id)
+                        .header("If-Match", currentETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void changeStatus_followsAllowedTransitions() throws Exception {
+        Booking booking = bookingRepository.saveAndFlush(createSampleBooking());
+        Long id = booking.getId();
+
+        mockMvc.perform(patch("/bookings/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isNoContent());
+
+        // CONFIRMED -> PENDING är inte tillåtet
+        mockMvc.perform(patch("/bookings/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(patch("/bookings/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + id + ", 999999],\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied[0]", is(id.intValue())))
+                .andExpect(jsonPath("$.skipped[0]", is(999999)));
+
+        mockMvc.perform(get("/bookings/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CANCELLED")));
+    }
+
     @Test
     void deleteBooking_removesEntity() throws Exception {
         Booking booking = bookingRepository.save(createSampleBooking());
@@ -116,4 +292,176 @@ class BookingApiIntegrationTest {
         mockMvc.perform(get("/bookings/{id}", id))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void batch_createsValidItemsAndReportsInvalidOnes() throws Exception {
+        Booking existing = bookingRepository.save(createSampleBooking());
+        Booking invalid = createSampleBooking();
+        invalid.setEmail("not-an-email");
+        Booking update = new Booking("Batch Update", "integration@example.com",
+                LocalDateTime.of(2025, 1, 1, 10, 0), 3, BookingStatus.CONFIRMED);
+        ObjectNode updateJson = objectMapper.valueToTree(update);
+        updateJson.put("id", existing.getId());
+
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                List.<Object>of(createSampleBooking(), invalid, updateJson))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].outcome", is("CREATED")))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[1].outcome", is("INVALID")))
+                .andExpect(jsonPath("$[2].outcome", is("UPDATED")))
+                .andExpect(jsonPath("$[2].id", is(existing.getId().intValue())));
+
+        mockMvc.perform(get("/bookings/{id}", existing.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Batch Update")));
+    }
+
+    @Test
+    void getById_recordsServiceTimerAndSqlStatementsPerRequest() throws Exception {
+        Long id = bookingRepository.saveAndFlush(createSampleBooking()).getId();
+
+        mockMvc.perform(get("/bookings/{id}", id))
+                .andExpect(status().isOk());
+
+        // Tjänstemetoden tidsmäts och antalet SQL-satser registreras per URI-mönster
+        Timer timer = meterRegistry.find("booking.service")
+                .tags("class", "BookingService", "method", "findById")
+                .timer();
+        DistributionSummary statements = meterRegistry.find("booking.http.sql.statements")
+                .tags("method", "GET", "uri", "/bookings/{id}")
+                .summary();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isPositive();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isPositive();
+    }
+
+    @Test
+    void createWithIdempotencyKey_duplicateReplaysWithoutNewRow() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(createSampleBooking());
+
+        String first = mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Omförsök med samma nyckel ger samma svar och ingen ny rad
+        mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(first));
+
+        assertThat(bookingRepository.count()).isEqualTo(1);
+
+        // Samma nyckel med annan payload avvisas
+        Booking other = createSampleBooking();
+        other.setName("Someone Else");
+        mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void availability_tracksSeatsPerStatusAndSurvivesRebuild() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2031, 5, 1, 18, 0);
+        Booking first = new Booking("A", "a@example.com", slot, 2, BookingStatus.PENDING);
+        Booking second = new Booking("B", "b@example.com", slot, 3, BookingStatus.PENDING);
+        String body = mockMvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(first)))
+                .andReturn().getResponse().getContentAsString();
+        long firstId = objectMapper.readTree(body).get("id").asLong();
+        mockMvc.perform(post("/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(second)));
+
+        mockMvc.perform(patch("/bookings/{id}/status", firstId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isNoContent());
+
+        // Aggregatet följer skrivningarna och en ombyggnad ger samma siffror
+        for (int round = 0; round < 2; round++) {
+            mockMvc.perform(get("/availability")
+                            .param("from", "2031-05-01T00:00:00")
+                            .param("to", "2031-05-02T00:00:00"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].available", is(37)))
+                    .andExpect(jsonPath("$[0].seats.PENDING", is(3)))
+                    .andExpect(jsonPath("$[0].seats.CANCELLED", is(2)))
+                    .andExpect(jsonPath("$[0].bookings.CANCELLED", is(1)));
+            availabilityService.rebuild();
+        }
+    }
+
+    @Test
+    void availability_ofSlotCreatedAfterItsBookings_countsThem() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2031, 6, 1, 18, 0);
+        // Sparad direkt, utan platsrad, som bokningar från före aggregatet
+        bookingRepository.save(new Booking("Early", "early@example.com", slot, 4, BookingStatus.CONFIRMED));
+
+        mockMvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Booking("Late", "late@example.com", slot, 2, BookingStatus.PENDING))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/availability")
+                        .param("from", "2031-06-01T00:00:00")
+                        .param("to", "2031-06-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].available", is(34)))
+                .andExpect(jsonPath("$[0].seats.CONFIRMED", is(4)))
+                .andExpect(jsonPath("$[0].bookings.CONFIRMED", is(1)))
+                .andExpect(jsonPath("$[0].seats.PENDING", is(2)));
+    }
+
+    @Test
+    void deleteBookings_removesMatchingInChunksAndKeepsAvailabilityInStep() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2032, 3, 1, 18, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Booking booking = new Booking("Guest " + i, "guest" + i + "@example.com", slot, 2, BookingStatus.PENDING);
+            String body = mockMvc.perform(post("/bookings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(booking)))
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(body).get("id").asLong());
+        }
+        for (Long id : ids.subList(0, 3)) {
+            mockMvc.perform(patch("/bookings/{id}/status", id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"status\":\"CANCELLED\"}"))
+                    .andExpect(status().isNoContent());
+        }
+
+        // Tre avbokade över två chunkar; den aktiva bokningen ligger kvar
+        mockMvc.perform(delete("/bookings")
+                        .param("status", "CANCELLED")
+                        .param("before", "2032-03-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(3)));
+
+        assertThat(bookingRepository.findAllById(ids)).extracting(Booking::getId).containsExactly(ids.get(3));
+        mockMvc.perform(get("/availability")
+                        .param("from", "2032-03-01T00:00:00")
+                        .param("to", "2032-03-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].available", is(38)))
+                .andExpect(jsonPath("$[0].bookings.CANCELLED", is(0)))
+                .andExpect(jsonPath("$[0].bookings.PENDING", is(1)));
+    }
+}
@@ -0,0 +1,122 @@
+package eu.kaninis.booking_service.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.deadlines.DeadlineScheduler;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingReminderRepository;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.SchedulerLeaseRepository;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import eu.kaninis.booking_service.booking.service.BookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Tick and load interval are long, so only runNow() fires anything during the test
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "booking.deadlines.enabled=true",
+        "booking.deadlines.hold-time=0s",
+        "booking.deadlines.reminder-lead=24h",
+        "booking.deadlines.tick=1h",
+        "booking.deadlines.load-interval=1h",
+        "booking.deadlines.notifier=file"
+})
+class BookingDeadlinesIntegrationTest {
+
+    @TempDir
+    static Path reminderDir;
+
+    @DynamicPropertySource
+    static void reminderFile(DynamicPropertyRegistry registry) {
+        registry.add("booking.deadlines.notifier-file", () -> reminderDir.resolve("reminders.ndjson").toString());
+    }
+
+    @Autowired
+    private DeadlineScheduler deadlineScheduler;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingReminderRepository bookingReminderRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        bookingReminderRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+    }
+
+    @Test
+    void runNow_expiresHeldBookingsAndRemindsUpcomingOnesOnce() throws IOException {
+        LocalDateTime soon = LocalDateTime.now().plusHours(2).truncatedTo(ChronoUnit.HOURS);
+        Booking held = bookingService.create(new Booking("Held", "held@example.com",
+                LocalDateTime.of(2030, 6, 1, 19, 0), 2, BookingStatus.PENDING));
+        Booking upcoming = bookingService.create(new Booking("Upcoming", "upcoming@example.com",
+                soon, 4, BookingStatus.CONFIRMED));
+        Booking cancelled = bookingService.create(new Booking("Cancelled", "cancelled@example.com",
+                soon, 1, BookingStatus.CANCELLED));
+
+        // Hålltiden är noll, så den väntande bokningen går ut direkt
+        deadlineScheduler.runNow();
+
+        assertThat(bookingRepository.findById(held.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.CANCELLED);
+        assertThat(bookingRepository.findById(upcoming.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(reminderIds()).containsExactly(upcoming.getId());
+        assertThat(reminderIds()).doesNotContain(cancelled.getId());
+
+        // En påminnelse skickas bara en gång
+        deadlineScheduler.runNow();
+        assertThat(reminderIds()).containsExactly(upcoming.getId());
+        assertThat(schedulerLeaseRepository.findById("booking-deadlines")).isPresent();
+    }
+
+    private List<Long> reminderIds() throws IOException {
+        Path file = reminderDir.resolve("reminders.ndjson");
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        return Files.readAllLines(file).stream()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .map(node -> node.path("bookingId").asLong())
+                .toList();
+    }
+}
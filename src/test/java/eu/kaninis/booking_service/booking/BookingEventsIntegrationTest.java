@@ -0,0 +1,137 @@
+package eu.kaninis.booking_service.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.events.BookingEventStream;
+import eu.kaninis.booking_service.booking.events.InProcessEventSink;
+import eu.kaninis.booking_service.booking.events.OutboxRelay;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingEventType;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.OutboxEventRepository;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingEventsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InProcessEventSink sink;
+
+    @Autowired
+    private BookingEventStream bookingEventStream;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void bookingChanges_areRelayedToSinkInOrder() throws Exception {
+        List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+        Runnable unsubscribe = sink.subscribe(received::addAll);
+        try {
+            Booking booking = new Booking("Event User", "event@example.com",
+                    LocalDateTime.of(2030, 3, 1, 18, 0), 2, BookingStatus.PENDING);
+            String body = mockMvc.perform(post("/bookings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(booking)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            long id = objectMapper.readTree(body).get("id").asLong();
+
+            mockMvc.perform(patch("/bookings/{id}/status", id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"status\":\"CONFIRMED\"}"))
+                    .andExpect(status().isNoContent());
+            mockMvc.perform(delete("/bookings/{id}", id))
+                    .andExpect(status().isNoContent());
+
+            assertThat(outboxRelay.drain()).isGreaterThanOrEqualTo(3);
+
+            assertThat(received)
+                    .filteredOn(event -> event.getBookingId() == id)
+                    .extracting(OutboxEvent::getType)
+                    .containsExactly(BookingEventType.CREATED, BookingEventType.STATUS_CHANGED, BookingEventType.DELETED);
+            assertThat(outboxRelay.drain()).isZero();
+        } finally {
+            unsubscribe.run();
+        }
+    }
+
+    @Test
+    void eventStream_deliversEventsPublishedOutOfIdOrder() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/bookings/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Ett event med lägre id blir publicerat efter ett med högre, som från en annan nods id-block
+        OutboxEvent lowId = outboxEventRepository.save(new OutboxEvent(BookingEventType.CREATED, 2L, "{\"id\":2}"));
+        OutboxEvent highId = outboxEventRepository.save(new OutboxEvent(BookingEventType.CREATED, 1L, "{\"id\":1}"));
+        assertThat(highId.getId()).isGreaterThan(lowId.getId());
+        Instant now = Instant.now();
+        outboxEventRepository.markPublished(List.of(highId.getId()), now);
+        bookingEventStream.poll();
+        outboxEventRepository.markPublished(List.of(lowId.getId()), now.plusMillis(1));
+        bookingEventStream.poll();
+
+        String body = awaitContent(stream, "id:" + lowId.getId());
+        assertThat(body).contains("id:" + highId.getId(), "id:" + lowId.getId());
+        assertThat(body.indexOf("id:" + highId.getId())).isLessThan(body.indexOf("id:" + lowId.getId()));
+    }
+
+    // Events are written by the subscriber's own sender thread
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,97 @@
+package eu.kaninis.booking_service.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.ingest.BookingIngestService;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.IngestResultRepository;
+import eu.kaninis.booking_service.booking.repository.OutboxEventRepository;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "booking.ingest.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingIngestIntegrationTest {
+
+    @TempDir
+    static Path spillDir;
+
+    @DynamicPropertySource
+    static void spillProperties(DynamicPropertyRegistry registry) {
+        registry.add("booking.ingest.spill.dir", spillDir::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingIngestService bookingIngestService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private IngestResultRepository ingestResultRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        ingestResultRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void asyncCreate_isWrittenAndTrackable() throws Exception {
+        Booking booking = new Booking("Async User", "async@example.com",
+                LocalDateTime.of(2030, 4, 1, 19, 0), 2, BookingStatus.PENDING);
+
+        String body = mockMvc.perform(post("/bookings")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String trackingId = objectMapper.readTree(body).get("trackingId").asText();
+
+        // Vänta tills skrivtråden har tömt kön
+        assertThat(bookingIngestService.awaitDrained(Duration.ofSeconds(10))).isTrue();
+
+        mockMvc.perform(get("/bookings/ingest/{trackingId}", trackingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("CREATED")));
+        assertThat(bookingRepository.count()).isEqualTo(1);
+    }
+}
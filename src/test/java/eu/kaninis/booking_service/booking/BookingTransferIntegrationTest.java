@@ -0,0 +1,183 @@
+package eu.kaninis.booking_service.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingEventType;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.OutboxEvent;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.OutboxEventRepository;
+import eu.kaninis.booking_service.booking.repository.SlotAvailabilityRepository;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import eu.kaninis.booking_service.booking.service.BookingService;
+import eu.kaninis.booking_service.booking.service.SlotAdmission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// H2 has no COPY, so this runs the JDBC fallback; the merge statements are the ones PostgreSQL runs
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingTransferIntegrationTest {
+
+    private static final String HEADER = "id,name,email,date_time,number_of_people,status,version,created_at\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SlotAdmission slotAdmission;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private SlotAvailabilityRepository slotAvailabilityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        slotAvailabilityRepository.deleteAll();
+    }
+
+    @Test
+    void export_writesEveryBookingAsCsv() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2033, 4, 1, 18, 0);
+        Booking booking = bookingService.create(new Booking("Smith, Jo", "jo@example.com", slot, 2,
+                BookingStatus.CONFIRMED));
+
+        String csv = mockMvc.perform(get("/bookings/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Namnet innehåller ett kommatecken och citeras därför
+        assertThat(csv.lines()).hasSize(2);
+        assertThat(csv).startsWith(HEADER);
+        assertThat(csv.lines().skip(1).findFirst().orElseThrow())
+                .startsWith(booking.getId() + ",\"Smith, Jo\",jo@example.com,2033-04-01 18:00:00,2,CONFIRMED,0,");
+    }
+
+    @Test
+    void import_mergesBySetAndKeepsSeatsAvailabilityAndOutboxInStep() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2033, 4, 1, 18, 0);
+        Booking kept = bookingService.create(new Booking("Kept", "kept@example.com", slot, 2,
+                BookingStatus.CONFIRMED));
+        Booking moved = bookingService.create(new Booking("Moved", "moved@example.com", slot, 3,
+                BookingStatus.PENDING));
+        outboxEventRepository.deleteAll();
+
+        // En flyttad bokning, en oförändrad, en ny utan id och en med okänt id
+        String csv = HEADER
+                + moved.getId() + ",Moved,moved@example.com,2033-04-02 18:00:00,5,CONFIRMED,,\n"
+                + kept.getId() + ",Kept,kept@example.com,2033-04-01T18:00,2,CONFIRMED,7,\n"
+                + ",\"New, Guest\",new@example.com,2033-04-02 18:00:00,4,PENDING,,\n"
+                + "999999999,Ghost,ghost@example.com,2033-04-02 18:00:00,1,PENDING,,\n";
+
+        mockMvc.perform(post("/bookings/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(1)))
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.unchanged", is(1)))
+                .andExpect(jsonPath("$.skipped", is(1)));
+
+        Booking movedAfter = bookingRepository.findById(moved.getId()).orElseThrow();
+        assertThat(movedAfter.getDateTime()).isEqualTo(LocalDateTime.of(2033, 4, 2, 18, 0));
+        assertThat(movedAfter.getNumberOfPeople()).isEqualTo(5);
+        assertThat(movedAfter.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(movedAfter.getVersion()).isEqualTo(moved.getVersion() + 1);
+        assertThat(bookingRepository.findById(kept.getId()).orElseThrow().getVersion()).isEqualTo(kept.getVersion());
+        Booking added = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getEmail().equals("new@example.com"))
+                .findFirst().orElseThrow();
+        assertThat(added.getName()).isEqualTo("New, Guest");
+        assertThat(added.getCreatedAt()).isNotNull();
+        assertThat(bookingRepository.findById(999999999L)).isEmpty();
+
+        // Platserna räknas om för både den gamla och den nya tiden
+        mockMvc.perform(get("/availability")
+                        .param("from", "2033-04-01T00:00:00")
+                        .param("to", "2033-04-03T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].available", is(38)))
+                .andExpect(jsonPath("$[0].bookings.PENDING", is(0)))
+                .andExpect(jsonPath("$[1].available", is(31)))
+                .andExpect(jsonPath("$[1].seats.CONFIRMED", is(5)))
+                .andExpect(jsonPath("$[1].seats.PENDING", is(4)));
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).extracting(OutboxEvent::getType)
+                .containsExactlyInAnyOrder(BookingEventType.CREATED, BookingEventType.UPDATED);
+        OutboxEvent updated = events.stream()
+                .filter(event -> event.getType() == BookingEventType.UPDATED)
+                .findFirst().orElseThrow();
+        JsonNode payload = objectMapper.readTree(updated.getPayload());
+        assertThat(updated.getBookingId()).isEqualTo(moved.getId());
+        assertThat(payload.get("numberOfPeople").asInt()).isEqualTo(5);
+        assertThat(payload.get("status").asText()).isEqualTo("CONFIRMED");
+    }
+
+    @Test
+    void import_overCapacity_isRejectedWithoutWritingAnything() throws Exception {
+        LocalDateTime slot = LocalDateTime.of(2033, 5, 1, 18, 0);
+        slotAdmission.setCapacity(slot, 3);
+        String csv = HEADER
+                + ",A,a@example.com,2033-05-01 18:00:00,2,PENDING,,\n"
+                + ",B,b@example.com,2033-05-01 18:00:00,2,CONFIRMED,,\n";
+
+        mockMvc.perform(post("/bookings/import").contentType("text/csv").content(csv))
+                .andExpect(status().isConflict());
+
+        // Hela importen rullas tillbaka
+        assertThat(bookingRepository.count()).isZero();
+        assertThat(slotCapacityRepository.findById(slot).orElseThrow().getReserved()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void import_malformedRowsOrHeader_returnsBadRequest() throws Exception {
+        String invalidRow = HEADER + ",A,a@example.com,2033-05-01 18:00:00,0,PENDING,,\n";
+        String wrongHeader = "name,email\nA,a@example.com\n";
+        String badTimestamp = HEADER + ",A,a@example.com,tomorrow,2,PENDING,,\n";
+
+        for (String csv : List.of(invalidRow, wrongHeader, badTimestamp)) {
+            mockMvc.perform(post("/bookings/import").contentType("text/csv").content(csv))
+                    .andExpect(status().isBadRequest());
+        }
+
+        assertThat(bookingRepository.count()).isZero();
+    }
+}
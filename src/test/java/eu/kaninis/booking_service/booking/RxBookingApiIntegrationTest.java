@@ -0,0 +1,155 @@
+package eu.kaninis.booking_service.booking;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.rx.RxServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"test", "reactive"})
+class RxBookingApiIntegrationTest {
+
+    @Autowired
+    private RxServer rxServer;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + rxServer.port()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+    }
+
+    private Booking save(int hour) {
+        return bookingRepository.save(new Booking("Rx User " + hour, "rx" + hour + "@example.com",
+                LocalDateTime.of(2030, 3, 1, hour, 0), 2, BookingStatus.PENDING));
+    }
+
+    @Test
+    void getBookingById_readsRowWrittenThroughJpa() {
+        Booking booking = save(18);
+
+        client.get().uri("/rx/bookings/{id}", booking.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + booking.getVersion() + "\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(booking.getId())
+                .jsonPath("$.email").isEqualTo("rx18@example.com")
+                .jsonPath("$.dateTime").isEqualTo("2030-03-01T18:00:00")
+                .jsonPath("$.status").isEqualTo("PENDING");
+
+        // Sammanfattningen utelämnar personuppgifter
+        client.get().uri("/rx/bookings/{id}?fields=summary", booking.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.numberOfPeople").isEqualTo(2)
+                .jsonPath("$.email").doesNotExist();
+
+        client.get().uri("/rx/bookings/{id}", booking.getId() + 1000)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getBookingPage_followsCursorToLastPage() {
+        save(17);
+        save(18);
+        save(19);
+
+        BookingPageJson first = client.get().uri("/rx/bookings?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookingPageJson.class).returnResult().getResponseBody();
+        assertThat(first.items()).extracting(BookingJson::name).containsExactly("Rx User 17", "Rx User 18");
+        assertThat(first.nextCursor()).isNotNull();
+
+        BookingPageJson last = client.get().uri("/rx/bookings?limit=2&cursor={cursor}", first.nextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookingPageJson.class).returnResult().getResponseBody();
+        assertThat(last.items()).extracting(BookingJson::name).containsExactly("Rx User 19");
+        assertThat(last.nextCursor()).isNull();
+
+        client.get().uri("/rx/bookings?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/rx/bookings?limit=2&cursor=not-a-cursor").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamBookings_writesOneLinePerBooking() {
+        for (int hour = 0; hour < 24; hour++) {
+            save(hour);
+        }
+
+        List<BookingJson> streamed = client.get().uri("/rx/bookings")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BookingJson.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(streamed).hasSize(24);
+        assertThat(streamed).extracting(BookingJson::id).isSorted();
+    }
+
+    @Test
+    void longPoll_answersWhenVersionChangesAndOtherwiseNotModified() {
+        Booking booking = save(18);
+        long version = booking.getVersion();
+        String eTag = "\"" + version + "\"";
+
+        // Ingen ändring under väntetiden ger 304
+        client.get().uri("/rx/bookings/{id}?wait=200ms", booking.getId())
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", eTag);
+
+        // En ändring medan klienten väntar besvaras direkt med den nya versionen
+        CompletableFuture.runAsync(() -> {
+            booking.setStatus(BookingStatus.CONFIRMED);
+            bookingRepository.save(booking);
+        }, CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+
+        client.get().uri("/rx/bookings/{id}?wait=10s", booking.getId())
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + (version + 1) + "\"")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("CONFIRMED");
+    }
+
+    record BookingJson(Long id, String name, String email, LocalDateTime dateTime, int numberOfPeople,
+                       BookingStatus status, Long version) {
+    }
+
+    record BookingPageJson(List<BookingJson> items, String nextCursor) {
+    }
+}
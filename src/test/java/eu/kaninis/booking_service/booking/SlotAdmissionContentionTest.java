@@ -0,0 +1,135 @@
+package eu.kaninis.booking_service.booking;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.repository.SlotCapacityRepository;
+import eu.kaninis.booking_service.booking.service.BookingService;
+import eu.kaninis.booking_service.booking.service.SlotAdmission;
+import eu.kaninis.booking_service.booking.service.SlotFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SlotAdmissionContentionTest {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+    private static final int CAPACITY = 1000;
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 6, 1, 19, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SlotAdmission slotAdmission;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentAdmissionsOnOneSlot_fillItExactlyToCapacity() throws Exception {
+        // Fler försök än platser, så att en del måste avvisas
+        Contention result = contend(8, 10, 50);
+
+        assertFilledExactly(result, 50);
+    }
+
+    @Test
+    void slotCreatedAfterBookings_startsWithTheirSeatsReserved() {
+        // Bokningar som fanns innan platsen fick en rad; den avbokade håller inga platser
+        bookingRepository.save(new Booking("Early", "early@example.com", SLOT, 30, BookingStatus.CONFIRMED));
+        bookingRepository.save(new Booking("Gone", "gone@example.com", SLOT, 5, BookingStatus.CANCELLED));
+
+        slotAdmission.setCapacity(SLOT, 40);
+
+        assertThat(slotAdmission.findSlot(SLOT)).hasValueSatisfying(slot ->
+                assertThat(slot.getReserved()).isEqualTo(30));
+        assertThatThrownBy(() -> bookingService.create(
+                new Booking("Late", "late@example.com", SLOT, 11, BookingStatus.PENDING)))
+                .isInstanceOf(SlotFullException.class);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void sixtyFourThreadsOnOneSlot_neverOverbook() throws Exception {
+        Contention result = contend(THREADS, ATTEMPTS_PER_THREAD, CAPACITY);
+
+        System.out.printf("slot contention: %d threads, %d attempts in %d ms (%.0f admissions/s)%n",
+                THREADS, result.attempts(), TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()),
+                result.attempts() / (result.elapsedNanos() / 1e9));
+        assertFilledExactly(result, CAPACITY);
+    }
+
+    private record Contention(int attempts, int admitted, int rejected, long elapsedNanos) {
+    }
+
+    private Contention contend(int threads, int attemptsPerThread, int capacity) throws Exception {
+        slotAdmission.setCapacity(SLOT, capacity);
+
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        bookingService.create(new Booking("Load", "load@example.com", SLOT, 1, BookingStatus.PENDING));
+                        admitted.incrementAndGet();
+                    } catch (SlotFullException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return new Contention(threads * attemptsPerThread, admitted.get(), rejected.get(), elapsedNanos);
+    }
+
+    private void assertFilledExactly(Contention result, int capacity) {
+        assertThat(result.admitted()).isEqualTo(capacity);
+        assertThat(result.rejected()).isEqualTo(result.attempts() - capacity);
+        assertThat(bookingRepository.count()).isEqualTo(capacity);
+        assertThat(slotAdmission.findSlot(SLOT)).hasValueSatisfying(slot ->
+                assertThat(slot.getReserved()).isEqualTo(capacity));
+    }
+}
@@ -0,0 +1,131 @@
+package eu.kaninis.booking_service.booking;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import eu.kaninis.booking_service.booking.rx.RxServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Holds the same number of NDJSON exports open against Tomcat ({@code /bookings}) and the
+ * reactive stack ({@code /rx/bookings}), each with a pool of five connections, and prints
+ * the threads and heap the process needs per in-flight request. The clients stop reading
+ * after the headers, so exports stall on a full socket or wait for a connection: on Tomcat
+ * each of them holds a worker thread, on Netty a pending subscription. The client shares
+ * the JVM, so heap figures include its side of each connection on both runs. The reactive
+ * stack must hold all of them on a handful of threads.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "reactive"})
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=5",
+        "booking.rx.r2dbc.pool.max-size=5"
+})
+class StackFootprintLoadTest {
+
+    private static final int IN_FLIGHT = 300;
+    private static final int BOOKINGS = 10_000;
+    private static final long HOLD_MILLIS = 2_000;
+
+    private record Footprint(int threads, long heapBytes, long streaming) {
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RxServer rxServer;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void inFlightExports() throws Exception {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new Booking("Footprint " + i, "footprint" + i + "@example.com",
+                    LocalDateTime.of(2030, 1, 1, 18, 0).plusMinutes(i), 2, BookingStatus.PENDING));
+        }
+        bookingRepository.saveAll(bookings);
+
+        // Reactive first: Tomcat keeps its extra worker threads for a while after a run
+        Footprint reactive = hold(URI.create("http://localhost:" + rxServer.port() + "/rx/bookings"));
+        Footprint servlet = hold(URI.create("http://localhost:" + port + "/bookings"));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d exports in flight, %.1f connections per core%n", IN_FLIGHT, (double) IN_FLIGHT / cores);
+        print("reactive", reactive);
+        print("servlet", servlet);
+
+        assertThat(reactive.streaming()).isPositive();
+        assertThat(servlet.streaming()).isPositive();
+        // Netty parkerar exporterna på sina event loops i stället för en tråd per export
+        assertThat(reactive.threads()).isLessThan(IN_FLIGHT / 10);
+    }
+
+    private static Footprint hold(URI uri) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        int threadsBefore = threads.getThreadCount();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        try {
+            List<CompletableFuture<HttpResponse<InputStream>>> exports = new ArrayList<>();
+            for (int i = 0; i < IN_FLIGHT; i++) {
+                exports.add(client.sendAsync(HttpRequest.newBuilder(uri).header("Accept", "application/x-ndjson").build(),
+                        HttpResponse.BodyHandlers.ofInputStream()));
+            }
+            Thread.sleep(HOLD_MILLIS);
+            System.gc();
+            long heap = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+            int threadCount = threads.getThreadCount() - threadsBefore;
+            long streaming = exports.stream()
+                    .filter(export -> export.isDone() && !export.isCompletedExceptionally())
+                    .filter(export -> export.join().statusCode() == 200)
+                    .count();
+            return new Footprint(threadCount, heap, streaming);
+        } finally {
+            client.shutdownNow();
+        }
+    }
+
+    private static void print(String stack, Footprint footprint) {
+        System.out.printf("%s: %d streaming, %+d threads (%.2f per request), %.1f KB heap per request%n",
+                stack, footprint.streaming(), footprint.threads(), (double) footprint.threads() / IN_FLIGHT,
+                footprint.heapBytes() / 1024.0 / IN_FLIGHT);
+    }
+}
@@ -0,0 +1,127 @@
+package eu.kaninis.booking_service.booking;
+
+import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bursts of concurrent reads against a running server, once on Tomcat's platform
+ * threads and once on virtual threads, printing latency percentiles for each. The
+ * connection pool is kept small so requests queue on connection admission. Every request
+ * must still be answered with 200 within the timeout.
+ */
+@Tag("benchmark")
+class ThreadingModeLoadTest {
+
+    private static final int CONCURRENT_CLIENTS = 200;
+    private static final int REQUESTS_PER_CLIENT = 10;
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+            "spring.threads.virtual.enabled=false",
+            "server.tomcat.threads.max=50",
+            "spring.datasource.hikari.maximum-pool-size=5"
+    })
+    class PlatformThreads extends LoadRun {
+
+        @Test
+        void burst() throws Exception {
+            run("platform");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+            "spring.threads.virtual.enabled=true",
+            "spring.datasource.hikari.maximum-pool-size=5"
+    })
+    class VirtualThreads extends LoadRun {
+
+        @Test
+        void burst() throws Exception {
+            run("virtual");
+        }
+    }
+
+    abstract static class LoadRun {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        @AfterEach
+        void tearDown() {
+            bookingRepository.deleteAll();
+        }
+
+        void run(String mode) throws Exception {
+            bookingRepository.save(new Booking("Load", "load@example.com",
+                    LocalDateTime.of(2030, 1, 1, 18, 0), 2, BookingStatus.PENDING));
+            // A page query goes to the database every time, unlike the cached lookup by id
+            URI uri = URI.create("http://localhost:" + port + "/bookings?limit=1");
+
+            try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+                 ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (int c = 0; c < CONCURRENT_CLIENTS; c++) {
+                    futures.add(clients.submit(() -> {
+                        long[] latencies = new long[REQUESTS_PER_CLIENT];
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            long start = System.nanoTime();
+                            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            latencies[r] = System.nanoTime() - start;
+                            assertThat(response.statusCode()).isEqualTo(200);
+                        }
+                        return latencies;
+                    }));
+                }
+                long[] all = new long[CONCURRENT_CLIENTS * REQUESTS_PER_CLIENT];
+                int offset = 0;
+                for (Future<long[]> future : futures) {
+                    long[] latencies = future.get(2, TimeUnit.MINUTES);
+                    System.arraycopy(latencies, 0, all, offset, latencies.length);
+                    offset += latencies.length;
+                }
+                Arrays.sort(all);
+                System.out.printf("%s threads: %d requests p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                        mode, all.length, millis(all, 0.50), millis(all, 0.95), millis(all, 0.99),
+                        all[all.length - 1] / 1e6);
+            }
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+        }
+    }
+}
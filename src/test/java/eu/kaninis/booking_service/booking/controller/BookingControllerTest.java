@@ -1,9 +1,28 @@
 package eu.kaninis.booking_service.booking.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.events.BookingEventStream;
+import eu.kaninis.booking_service.booking.idempotency.IdempotencyService;
+import eu.kaninis.booking_service.booking.idempotency.IdempotentResponse;
+import eu.kaninis.booking_service.booking.ingest.BookingIngestService;
+import eu.kaninis.booking_service.booking.ingest.IngestUnavailableException;
+import eu.kaninis.booking_service.booking.model.BatchItemResult;
 import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingImportResult;
+import eu.kaninis.booking_service.booking.model.BookingPage;
+import eu.kaninis.booking_service.booking.model.BookingSearch;
 import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BookingSummary;
+import eu.kaninis.booking_service.booking.model.BookingSummaryPage;
+import eu.kaninis.booking_service.booking.model.BulkStatusResult;
+import eu.kaninis.booking_service.booking.service.BookingBatchService;
+import eu.kaninis.booking_service.booking.service.BookingPurgeService;
 import eu.kaninis.booking_service.booking.service.BookingService;
+import eu.kaninis.booking_service.booking.service.PreconditionFailedException;
+import eu.kaninis.booking_service.booking.service.StatusChange;
+import eu.kaninis.booking_service.booking.transfer.BookingTransferService;
+import eu.kaninis.booking_service.booking.web.CborConfig;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,17 +35,28 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +73,24 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private BookingBatchService bookingBatchService;
+
+    @MockBean
+    private BookingEventStream bookingEventStream;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private BookingIngestService bookingIngestService;
+
+    @MockBean
+    private BookingPurgeService bookingPurgeService;
+
+    @MockBean
+    private BookingTransferService bookingTransferService;
+
     private Booking createSampleBooking(Long id) {
         Booking booking = new Booking(
                 "Test User",
@@ -64,7 +112,11 @@ class BookingControllerTest {
     @Test
     void getAllBookings_returnsOkAndList() throws Exception {
         // given
-        given(bookingService.findAll()).willReturn(List.of(createSampleBooking(1L)));
+        willAnswer(invocation -> {
+            Consumer<Booking> consumer = invocation.getArgument(0);
+            consumer.accept(createSampleBooking(1L));
+            return null;
+        }).given(bookingService).streamAll(any());
 
         // when + then
         mockMvc.perform(get("/bookings"))
@@ -73,7 +125,114 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].name", is("Test User")))
                 .andExpect(jsonPath("$[0].email", is("test@example.com")));
 
-        then(bookingService).should().findAll();
+        then(bookingService).should().streamAll(any());
+    }
+
+    @Test
+    void streamBookings_ndjson_writesOneBookingPerLine() throws Exception {
+        // given
+        willAnswer(invocation -> {
+            Consumer<Booking> consumer = invocation.getArgument(0);
+            consumer.accept(createSampleBooking(1L));
+            consumer.accept(createSampleBooking(2L));
+            return null;
+        }).given(bookingService).streamAll(any());
+
+        // when
+        String body = mockMvc.perform(get("/bookings").accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    void getAllBookings_cbor_writesCborArray() throws Exception {
+        // given
+        willAnswer(invocation -> {
+            Consumer<Booking> consumer = invocation.getArgument(0);
+            consumer.accept(createSampleBooking(1L));
+            consumer.accept(createSampleBooking(2L));
+            return null;
+        }).given(bookingService).streamAll(any());
+
+        // when
+        byte[] body = mockMvc.perform(get("/bookings").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        List<Booking> bookings = CborConfig.cborMapper(objectMapper).readValue(body,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, Booking.class));
+        assertThat(bookings).extracting(Booking::getId).containsExactly(1L, 2L);
+        assertThat(bookings.get(0).getDateTime()).isEqualTo(createSampleBooking(1L).getDateTime());
+    }
+
+    @Test
+    void getBookingPage_returnsItemsAndNextCursor() throws Exception {
+        // given
+        Booking last = createSampleBooking(7L);
+        given(bookingService.findPage(isNull(), eq(1)))
+                .willReturn(new BookingPage(List.of(last), BookingCursor.of(last).encode()));
+
+        // when + then
+        mockMvc.perform(get("/bookings").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(7)))
+                .andExpect(jsonPath("$.nextCursor", is(BookingCursor.of(last).encode())));
+    }
+
+    @Test
+    void getBookingPage_invalidCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings").param("limit", "10").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookingPage_summaryFields_returnsSummaries() throws Exception {
+        // given
+        BookingSummary last = BookingSummary.of(createSampleBooking(7L));
+        given(bookingService.findSummaryPage(isNull(), eq(1)))
+                .willReturn(new BookingSummaryPage(List.of(last), BookingCursor.of(last).encode()));
+
+        // when + then
+        mockMvc.perform(get("/bookings").param("limit", "1").param("fields", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(7)))
+                .andExpect(jsonPath("$.items[0].numberOfPeople", is(2)))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.items[0].email").doesNotExist());
+        then(bookingService).should(never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void getBookingPage_unknownFields_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings").param("limit", "10").param("fields", "everything"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchBookings_passesFiltersToService() throws Exception {
+        // given
+        BookingSearch expected = new BookingSearch(LocalDateTime.of(2025, 1, 1, 17, 0), null,
+                List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED), "test@example.com");
+        given(bookingService.search(eq(expected), isNull(), eq(100)))
+                .willReturn(new BookingPage(List.of(createSampleBooking(1L)), null));
+
+        // when + then
+        mockMvc.perform(get("/bookings/search")
+                        .param("from", "2025-01-01T17:00:00")
+                        .param("status", "PENDING", "CONFIRMED")
+                        .param("email", "test@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -116,6 +275,82 @@ class BookingControllerTest {
         then(bookingService).should().create(any(Booking.class));
     }
 
+    @Test
+    void createBooking_replayedIdempotencyKey_returnsStoredResponse() throws Exception {
+        // given
+        given(idempotencyService.execute(eq("retry-1"), any(Booking.class), any()))
+                .willReturn(new IdempotentResponse(200, "\"0\"", "{\"id\":7}", true));
+
+        // when + then
+        mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(7)));
+
+        then(bookingService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void createBooking_blankIdempotencyKey_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/bookings")
+                        .header("Idempotency-Key", " ")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createBooking_respondAsync_returnsAcceptedWithTrackingId() throws Exception {
+        // given
+        UUID trackingId = UUID.randomUUID();
+        given(bookingIngestService.isEnabled()).willReturn(true);
+        given(bookingIngestService.submit(any(Booking.class))).willReturn(Optional.of(trackingId));
+
+        // when + then
+        mockMvc.perform(post("/bookings")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/bookings/ingest/" + trackingId))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+
+        then(bookingService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void createBooking_respondAsyncQueueFull_returnsTooManyRequests() throws Exception {
+        // given
+        given(bookingIngestService.isEnabled()).willReturn(true);
+        given(bookingIngestService.submit(any(Booking.class))).willReturn(Optional.empty());
+
+        // when + then
+        mockMvc.perform(post("/bookings")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void createBooking_respondAsyncWhileStopped_returnsServiceUnavailable() throws Exception {
+        // given
+        given(bookingIngestService.isEnabled()).willReturn(true);
+        given(bookingIngestService.submit(any(Booking.class))).willThrow(new IngestUnavailableException());
+
+        // when + then
+        mockMvc.perform(post("/bookings")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void createBooking_invalid_returnsBadRequest() throws Exception {
         // Booking utan namn -> @NotBlank på name ska trigga 400
@@ -133,6 +368,23 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createOrUpdateBatch_returnsPerItemResults() throws Exception {
+        // given
+        given(bookingBatchService.createOrUpdate(anyList())).willReturn(List.of(
+                BatchItemResult.of(0, BatchItemResult.Outcome.CREATED, 1L),
+                BatchItemResult.invalid(1, List.of("email must be a well-formed email address"))));
+
+        // when + then
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createSampleBooking(null), createSampleBooking(null)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].outcome", is("CREATED")))
+                .andExpect(jsonPath("$[1].outcome", is("INVALID")));
+    }
+
     @Test
     void updateBooking_existing_returnsOk() throws Exception {
         // given
@@ -141,7 +393,7 @@ class BookingControllerTest {
         Booking updated = createSampleBooking(1L);
         updated.setName("Updated Name");
 
-        given(bookingService.update(eq(1L), any(Booking.class))).willReturn(Optional.of(updated));
+        given(bookingService.update(eq(1L), any(Booking.class), isNull())).willReturn(Optional.of(updated));
 
         // when + then
         mockMvc.perform(put("/bookings/{id}", 1L)
@@ -156,7 +408,7 @@ class BookingControllerTest {
     void updateBooking_nonExisting_returnsNotFound() throws Exception {
         // given
         Booking updateRequest = createSampleBooking(null);
-        given(bookingService.update(eq(99L), any(Booking.class))).willReturn(Optional.empty());
+        given(bookingService.update(eq(99L), any(Booking.class), isNull())).willReturn(Optional.empty());
 
         // when + then
         mockMvc.perform(put("/bookings/{id}", 99L)
@@ -165,6 +417,88 @@ class BookingControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateBooking_ifMatch_passesExpectedVersion() throws Exception {
+        // given
+        Booking updated = createSampleBooking(1L);
+        given(bookingService.update(eq(1L), any(Booking.class), eq(3L))).willReturn(Optional.of(updated));
+
+        // when + then
+        mockMvc.perform(put("/bookings/{id}", 1L)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateBooking_staleVersion_returnsPreconditionFailed() throws Exception {
+        // given
+        given(bookingService.update(eq(1L), any(Booking.class), eq(2L)))
+                .willThrow(new PreconditionFailedException(1L, 2L));
+
+        // when + then
+        mockMvc.perform(put("/bookings/{id}", 1L)
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createSampleBooking(null))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void changeStatus_applied_returnsNoContentWithNextETag() throws Exception {
+        // given
+        given(bookingService.changeStatus(1L, BookingStatus.CONFIRMED, 4L)).willReturn(StatusChange.APPLIED);
+
+        // when + then
+        mockMvc.perform(patch("/bookings/{id}/status", 1L)
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    void changeStatus_withoutIfMatch_appliesUnconditionally() throws Exception {
+        // given
+        given(bookingService.changeStatus(1L, BookingStatus.CANCELLED, null)).willReturn(StatusChange.APPLIED);
+
+        // when + then
+        mockMvc.perform(patch("/bookings/{id}/status", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void changeStatus_invalidTransition_returnsConflict() throws Exception {
+        // given
+        given(bookingService.changeStatus(1L, BookingStatus.PENDING, null)).willReturn(StatusChange.INVALID_TRANSITION);
+
+        // when + then
+        mockMvc.perform(patch("/bookings/{id}/status", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void changeStatusAll_returnsAppliedAndSkippedIds() throws Exception {
+        // given
+        given(bookingService.changeStatusAll(List.of(1L, 2L, 3L), BookingStatus.CONFIRMED))
+                .willReturn(new BulkStatusResult(List.of(1L, 3L), List.of(2L)));
+
+        // when + then
+        mockMvc.perform(patch("/bookings/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2,3],\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied", hasSize(2)))
+                .andExpect(jsonPath("$.skipped[0]", is(2)));
+    }
+
     @Test
     void deleteBooking_returnsNoContent() throws Exception {
         // when + then
@@ -173,4 +507,51 @@ class BookingControllerTest {
 
         then(bookingService).should().delete(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteBookings_passesStatusAndBeforeToPurge() throws Exception {
+        // given
+        given(bookingPurgeService.deleteAll(List.of(BookingStatus.CANCELLED), LocalDateTime.of(2025, 1, 1, 0, 0)))
+                .willReturn(1500);
+
+        // when + then
+        mockMvc.perform(delete("/bookings")
+                        .param("status", "CANCELLED")
+                        .param("before", "2025-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(1500)));
+    }
+
+    @Test
+    void deleteBookings_withoutBefore_returnsBadRequest() throws Exception {
+        mockMvc.perform(delete("/bookings").param("status", "CANCELLED"))
+                .andExpect(status().isBadRequest());
+
+        then(bookingPurgeService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void importBookings_csvBody_returnsCounts() throws Exception {
+        // given
+        given(bookingTransferService.importCsv(any())).willReturn(new BookingImportResult(2, 1, 0, 1));
+
+        // when + then
+        mockMvc.perform(post("/bookings/import")
+                        .contentType("text/csv")
+                        .content("id,name,email,date_time,number_of_people,status,version,created_at\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(2)))
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.skipped", is(1)));
+    }
+
+    @Test
+    void importBookings_jsonBody_isUnsupported() throws Exception {
+        mockMvc.perform(post("/bookings/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        then(bookingTransferService).shouldHaveNoInteractions();
+    }
+}
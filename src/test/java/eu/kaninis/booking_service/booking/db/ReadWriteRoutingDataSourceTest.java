@@ -0,0 +1,108 @@
+package eu.kaninis.booking_service.booking.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReadWriteRoutingDataSource(primary, replica, lagMonitor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ReadWriteRoutingDataSource.clearRequiredLsn();
+        ReadWriteRoutingDataSource.clearWriteCommitted();
+    }
+
+    @Test
+    void readWriteTransaction_usesPrimaryWithoutAskingReplica() {
+        // when
+        ReadWriteRoutingDataSource.Route route = routing.determineCurrentLookupKey();
+
+        // then
+        assertThat(route).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+        then(lagMonitor).should(never()).canServe(0L);
+    }
+
+    @Test
+    void readOnlyTransaction_usesReplicaWhileItKeepsUp() {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        given(lagMonitor.canServe(0L)).willReturn(true);
+
+        // when / then
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.REPLICA);
+    }
+
+    @Test
+    void readOnlyTransaction_afterOwnWriteNotYetReplayed_usesPrimary() {
+        // given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.requireLsn(0x16B374D848L);
+        given(lagMonitor.canServe(0x16B374D848L)).willReturn(false);
+
+        // when / then
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+    }
+
+    @Test
+    void writeTransaction_reportsPrimaryLsnOnItsOwnConnectionOnlyAfterCommit() throws Exception {
+        // given
+        Connection connection = mock(Connection.class);
+        given(primary.getConnection()).willReturn(connection);
+        given(lagMonitor.currentPrimaryLsn(connection)).willReturn(0x16B374D848L);
+        AtomicLong reported = new AtomicLong();
+        ReadWriteRoutingDataSource.onWriteCommitted(reported::set);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // when
+        routing.getConnection();
+
+        // then
+        assertThat(reported).hasValue(0L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(reported).hasValue(0x16B374D848L);
+    }
+
+    @Test
+    void parseLsn_combinesHighAndLowWords() {
+        assertThat(ReplicaLagMonitor.parseLsn("16/B374D848")).isEqualTo(0x16B374D848L);
+        assertThat(ReplicaLagMonitor.parseLsn("0/0")).isZero();
+    }
+}
@@ -0,0 +1,58 @@
+package eu.kaninis.booking_service.booking.deadlines;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_firesEntriesOnTheirTurnOnly() {
+        // given: 8 slots of 100 ms, so 150 ms and 950 ms share a bucket one turn apart
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, 0);
+        wheel.add(150, "first");
+        wheel.add(950, "next turn");
+        wheel.add(420, "middle");
+
+        // when / then
+        assertThat(wheel.advance(199)).containsExactly("first");
+        assertThat(wheel.advance(500)).containsExactly("middle");
+        assertThat(wheel.advance(900)).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(999)).containsExactly("next turn");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_afterLongPause_firesEverythingDueOnce() {
+        // given
+        TimingWheel<Integer> wheel = new TimingWheel<>(Duration.ofMillis(10), 4, 0);
+        for (int i = 0; i < 100; i++) {
+            wheel.add(i * 10L, i);
+        }
+        wheel.add(5_000, -1);
+
+        // when: many turns pass between two calls
+        var due = wheel.advance(2_000);
+
+        // then
+        assertThat(due).hasSize(100).doesNotHaveDuplicates();
+        assertThat(wheel.advance(4_999)).isEmpty();
+        assertThat(wheel.advance(5_000)).containsExactly(-1);
+    }
+
+    @Test
+    void add_pastDeadline_firesOnNextAdvance() {
+        // given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, 1_000);
+        wheel.advance(1_050);
+
+        // when
+        wheel.add(10, "late");
+
+        // then
+        assertThat(wheel.advance(1_150)).containsExactly("late");
+    }
+}
@@ -0,0 +1,63 @@
+package eu.kaninis.booking_service.booking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.kaninis.booking_service.booking.model.IdempotencyRecord;
+import eu.kaninis.booking_service.booking.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(repository, new ObjectMapper(), transactionManager, Duration.ofHours(24),
+                100, Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofMillis(1), Duration.ofSeconds(60));
+    }
+
+    @Test
+    void expiredKey_isClaimedAgainAndRunsTheAction() {
+        // given
+        willThrow(new DataIntegrityViolationException("duplicate key"))
+                .willReturn(null)
+                .given(repository).saveAndFlush(any(IdempotencyRecord.class));
+        given(repository.findState(eq("key-1"), any())).willReturn(Optional.empty());
+        given(repository.lockClaim(eq("key-1"), any())).willReturn(Optional.of(
+                new IdempotencyRecord("key-1", "fingerprint", Instant.now(), Instant.now().plusSeconds(60))));
+        given(repository.complete(eq("key-1"), any(), anyInt(), any(), any())).willReturn(1);
+
+        // when
+        IdempotentResponse response = service.execute("key-1", "request", () -> ResponseEntity.ok("fresh"));
+
+        // then
+        assertThat(response.replayed()).isFalse();
+        assertThat(response.body()).isEqualTo("\"fresh\"");
+        then(repository).should().deleteIfExpired(eq("key-1"), any());
+    }
+}
@@ -0,0 +1,31 @@
+package eu.kaninis.booking_service.booking.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadShedderTest {
+
+    @Test
+    void standingQueue_switchesToShortWaitsUntilASlotIsQuickAgain() throws Exception {
+        // given: one slot, evaluated on every call
+        LoadShedder shedder = new LoadShedder(1, Duration.ofMillis(10), Duration.ZERO, Duration.ofMillis(300));
+        assertThat(shedder.tryEnter()).isTrue();
+
+        // when: the slot stays taken, so the next caller waits the full max delay
+        assertThat(shedder.tryEnter()).isFalse();
+
+        // then: further callers are shed after roughly the target delay
+        assertThat(shedder.isOverloaded()).isTrue();
+        long start = System.nanoTime();
+        assertThat(shedder.tryEnter()).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(200));
+
+        // and: a caller that gets a slot right away ends the overload
+        shedder.exit();
+        assertThat(shedder.tryEnter()).isTrue();
+        assertThat(shedder.isOverloaded()).isFalse();
+    }
+}
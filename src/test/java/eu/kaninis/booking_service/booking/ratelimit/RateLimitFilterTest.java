@@ -0,0 +1,85 @@
+package eu.kaninis.booking_service.booking.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // Refills far slower than the test runs: only the burst counts
+        filter = new RateLimitFilter(List.of("/bookings"), List.of("partner-a", " partner-b "),
+                0.01, 2, 0.01, 1, 1000, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void readsOverBurst_getTooManyRequestsWithRetryAfter() throws Exception {
+        // given
+        assertThat(perform("GET", "/bookings/1", null).getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "/bookings/1", null).getStatus()).isEqualTo(200);
+
+        // when
+        MockHttpServletResponse rejected = perform("GET", "/bookings/1", null);
+
+        // then
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+    }
+
+    @Test
+    void writesAndReads_haveSeparateBudgetsPerClient() throws Exception {
+        // given
+        assertThat(perform("POST", "/bookings", null).getStatus()).isEqualTo(200);
+        assertThat(perform("POST", "/bookings", null).getStatus()).isEqualTo(429);
+
+        // when + then
+        assertThat(perform("GET", "/bookings", null).getStatus()).isEqualTo(200);
+        assertThat(perform("POST", "/bookings", "partner-a").getStatus()).isEqualTo(200);
+        assertThat(perform("POST", "/actuator/health", null).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void unknownApiKeys_shareTheBucketOfTheirAddress() throws Exception {
+        // given
+        assertThat(perform("POST", "/bookings", "made-up-1").getStatus()).isEqualTo(200);
+
+        // when + then
+        assertThat(perform("POST", "/bookings", "made-up-2").getStatus()).isEqualTo(429);
+        assertThat(perform("POST", "/bookings", null).getStatus()).isEqualTo(429);
+        assertThat(perform("POST", "/bookings", "partner-b").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void tokenBucket_refillsAtItsRate() {
+        // given
+        TokenBucket bucket = new TokenBucket();
+        TokenBucket.Budget budget = TokenBucket.Budget.of(10, 1);
+        long now = 1_000_000_000L;
+
+        // when + then
+        assertThat(bucket.tryTake(budget, now)).isZero();
+        assertThat(bucket.tryTake(budget, now)).isEqualTo(100_000_000L);
+        assertThat(bucket.tryTake(budget, now + 100_000_000L)).isZero();
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("203.0.113.7");
+        if (apiKey != null) {
+            request.addHeader(RateLimitFilter.API_KEY, apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
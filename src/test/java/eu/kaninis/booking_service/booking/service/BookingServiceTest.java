@@ -1,24 +1,44 @@
 package eu.kaninis.booking_service.booking.service;
 
+import eu.kaninis.booking_service.booking.cache.BookingCacheInvalidator;
+import eu.kaninis.booking_service.booking.events.BookingEventRecorder;
 import eu.kaninis.booking_service.booking.model.Booking;
+import eu.kaninis.booking_service.booking.model.BookingCursor;
+import eu.kaninis.booking_service.booking.model.BookingPage;
 import eu.kaninis.booking_service.booking.model.BookingStatus;
+import eu.kaninis.booking_service.booking.model.BulkStatusResult;
+import eu.kaninis.booking_service.booking.model.SeatHold;
+import eu.kaninis.booking_service.booking.model.StatusSnapshot;
 import eu.kaninis.booking_service.booking.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +47,21 @@ class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SlotAdmission slotAdmission;
+
+    @Mock
+    private BookingCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private BookingEventRecorder eventRecorder;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -57,6 +92,51 @@ class BookingServiceTest {
         then(bookingRepository).should(times(1)).findAll();
     }
 
+    @Test
+    void findPage_firstPage_returnsCursorOfLastItemWhenFull() {
+        // given
+        setId(booking, 5L);
+        given(bookingRepository.findFirstPage(any(Pageable.class))).willReturn(List.of(booking));
+
+        // when
+        BookingPage page = bookingService.findPage(null, 1);
+
+        // then
+        assertThat(page.items()).containsExactly(booking);
+        assertThat(BookingCursor.decode(page.nextCursor()))
+                .contains(new BookingCursor(booking.getDateTime(), 5L));
+    }
+
+    @Test
+    void findPage_afterCursor_seeksPastCursorAndEndsWhenShort() {
+        // given
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2025, 1, 1, 9, 0), 3L);
+        given(bookingRepository.findPageAfter(eq(cursor.dateTime()), eq(3L), any(Pageable.class)))
+                .willReturn(List.of(booking));
+
+        // when
+        BookingPage page = bookingService.findPage(cursor, 10);
+
+        // then
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+        then(bookingRepository).should(never()).findFirstPage(any(Pageable.class));
+    }
+
+    @Test
+    void streamAll_passesEachBookingAndDetachesIt() {
+        // given
+        given(bookingRepository.streamAll()).willReturn(Stream.of(booking));
+        List<Booking> seen = new ArrayList<>();
+
+        // when
+        bookingService.streamAll(seen::add);
+
+        // then
+        assertThat(seen).containsExactly(booking);
+        then(entityManager).should().detach(booking);
+    }
+
     @Test
     void findById_existingId_returnsBooking() {
         // given
@@ -87,6 +167,7 @@ class BookingServiceTest {
     @Test
     void create_savesBooking() {
         // given
+        runAdmittedWork();
         given(bookingRepository.save(any(Booking.class))).willAnswer(invocation -> {
             Booking saved = invocation.getArgument(0);
             // simulera genererat id
@@ -104,12 +185,28 @@ class BookingServiceTest {
         // then
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getStatus()).isEqualTo(BookingStatus.PENDING);
+        then(slotAdmission).should().reserve(booking.getDateTime(), 2);
+        then(availabilityService).should().added(result);
+        then(eventRecorder).should().created(result);
         then(bookingRepository).should(times(1)).save(any(Booking.class));
     }
 
+    @Test
+    void create_slotFull_doesNotSave() {
+        // given
+        runAdmittedWork();
+        willThrow(new SlotFullException(booking.getDateTime(), 2))
+                .given(slotAdmission).reserve(booking.getDateTime(), 2);
+
+        // when + then
+        assertThatThrownBy(() -> bookingService.create(booking)).isInstanceOf(SlotFullException.class);
+        then(bookingRepository).shouldHaveNoInteractions();
+    }
+
     @Test
     void update_existingId_updatesAndReturnsBooking() {
         // given
+        runAdmittedWork();
         Booking existing = booking;
         given(bookingRepository.findById(1L)).willReturn(Optional.of(existing));
 
@@ -120,7 +217,7 @@ class BookingServiceTest {
                 3,
                 BookingStatus.CONFIRMED
         );
-        given(bookingRepository.save(any(Booking.class))).willAnswer(invocation -> invocation.getArgument(0));
+        given(bookingRepository.saveAndFlush(any(Booking.class))).willAnswer(invocation -> invocation.getArgument(0));
 
         // when
         Optional<Booking> result = bookingService.update(1L, updated);
@@ -130,14 +227,18 @@ class BookingServiceTest {
         Booking updatedResult = result.get();
         assertThat(updatedResult.getName()).isEqualTo("Updated User");
         assertThat(updatedResult.getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        then(slotAdmission).should().release(LocalDateTime.of(2025, 1, 1, 10, 0), 2);
+        then(slotAdmission).should().reserve(LocalDateTime.of(2025, 1, 2, 12, 0), 3);
+        then(cacheInvalidator).should().invalidate(1L);
 
         then(bookingRepository).should(times(1)).findById(1L);
-        then(bookingRepository).should(times(1)).save(any(Booking.class));
+        then(bookingRepository).should(times(1)).saveAndFlush(any(Booking.class));
     }
 
     @Test
     void update_nonExistingId_returnsEmpty() {
         // given
+        runAdmittedWork();
         given(bookingRepository.findById(42L)).willReturn(Optional.empty());
 
         // when
@@ -149,6 +250,149 @@ class BookingServiceTest {
         then(bookingRepository).shouldHaveNoMoreInteractions();
     }
 
+    @Test
+    void changeStatus_cancel_releasesSeatsWithoutLoadingBooking() {
+        // given
+        given(bookingRepository.findStatusSnapshot(1L)).willReturn(Optional.of(
+                new StatusSnapshot(1L, LocalDateTime.of(2030, 1, 1, 18, 0), 4, BookingStatus.PENDING, 0L)));
+        given(bookingRepository.updateStatusAtVersion(1L, 0L, BookingStatus.CANCELLED)).willReturn(1);
+
+        // when
+        StatusChange result = bookingService.changeStatus(1L, BookingStatus.CANCELLED, 0L);
+
+        // then
+        assertThat(result).isEqualTo(StatusChange.APPLIED);
+        InOrder inOrder = inOrder(slotAdmission, bookingRepository);
+        inOrder.verify(slotAdmission).lockSlots(List.of(LocalDateTime.of(2030, 1, 1, 18, 0)));
+        inOrder.verify(bookingRepository).updateStatusAtVersion(1L, 0L, BookingStatus.CANCELLED);
+        then(slotAdmission).should().release(LocalDateTime.of(2030, 1, 1, 18, 0), 4);
+        then(availabilityService).should().statusChanged(1L, BookingStatus.PENDING, BookingStatus.CANCELLED);
+        then(eventRecorder).should().statusChanged(1L, BookingStatus.CANCELLED);
+        then(bookingRepository).should(never()).findById(any());
+    }
+
+    @Test
+    void changeStatus_concurrentChange_decidesAgainOnFreshRead() {
+        // given
+        given(bookingRepository.findStatusSnapshot(1L)).willReturn(
+                Optional.of(new StatusSnapshot(1L, LocalDateTime.of(2030, 1, 1, 18, 0), 4, BookingStatus.PENDING, 0L)),
+                Optional.of(new StatusSnapshot(1L, LocalDateTime.of(2030, 1, 1, 18, 0), 4, BookingStatus.CONFIRMED, 1L)));
+        given(bookingRepository.updateStatusAtVersion(1L, 0L, BookingStatus.CANCELLED)).willReturn(0);
+        given(bookingRepository.updateStatusAtVersion(1L, 1L, BookingStatus.CANCELLED)).willReturn(1);
+
+        // when
+        StatusChange result = bookingService.changeStatus(1L, BookingStatus.CANCELLED, null);
+
+        // then
+        assertThat(result).isEqualTo(StatusChange.APPLIED);
+        then(availabilityService).should().statusChanged(1L, BookingStatus.CONFIRMED, BookingStatus.CANCELLED);
+        then(slotAdmission).should(times(1)).release(LocalDateTime.of(2030, 1, 1, 18, 0), 4);
+    }
+
+    @Test
+    void changeStatus_staleVersion_returnsPreconditionFailed() {
+        // given
+        given(bookingRepository.findStatusSnapshot(1L)).willReturn(Optional.of(
+                new StatusSnapshot(1L, LocalDateTime.of(2030, 1, 1, 18, 0), 4, BookingStatus.PENDING, 3L)));
+
+        // when
+        StatusChange result = bookingService.changeStatus(1L, BookingStatus.CONFIRMED, 0L);
+
+        // then
+        assertThat(result).isEqualTo(StatusChange.PRECONDITION_FAILED);
+        then(bookingRepository).should(never()).updateStatusAtVersion(any(), anyLong(), any());
+        then(slotAdmission).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void changeStatus_fromCancelled_isInvalidTransition() {
+        // given
+        given(bookingRepository.findStatusSnapshot(1L)).willReturn(Optional.of(
+                new StatusSnapshot(1L, LocalDateTime.of(2030, 1, 1, 18, 0), 4, BookingStatus.CANCELLED, 1L)));
+
+        // when
+        StatusChange result = bookingService.changeStatus(1L, BookingStatus.CONFIRMED, null);
+
+        // then
+        assertThat(result).isEqualTo(StatusChange.INVALID_TRANSITION);
+    }
+
+    @Test
+    void changeStatus_missingBooking_isNotFound() {
+        // given
+        given(bookingRepository.findStatusSnapshot(1L)).willReturn(Optional.empty());
+
+        // when
+        StatusChange result = bookingService.changeStatus(1L, BookingStatus.CONFIRMED, null);
+
+        // then
+        assertThat(result).isEqualTo(StatusChange.NOT_FOUND);
+    }
+
+    @Test
+    void changeStatusAll_cancel_releasesSeatsOncePerSlot() {
+        // given
+        LocalDateTime slot = LocalDateTime.of(2025, 1, 1, 10, 0);
+        given(bookingRepository.findSlotTimes(List.of(1L, 2L, 3L))).willReturn(List.of(slot));
+        given(bookingRepository.lockSeatHolds(List.of(1L, 2L, 3L), BookingStatus.CANCELLED.allowedSources(),
+                Set.of(slot)))
+                .willReturn(List.of(new SeatHold(1L, slot, 2, BookingStatus.PENDING),
+                        new SeatHold(3L, slot, 4, BookingStatus.CONFIRMED)));
+
+        // when
+        BulkStatusResult result = bookingService.changeStatusAll(List.of(1L, 2L, 3L), BookingStatus.CANCELLED);
+
+        // then
+        assertThat(result.applied()).containsExactly(1L, 3L);
+        assertThat(result.skipped()).containsExactly(2L);
+        then(bookingRepository).should().updateStatusForIds(List.of(1L, 3L), BookingStatus.CANCELLED);
+        then(slotAdmission).should().release(slot, 6);
+    }
+
+    @Test
+    void changeStatusAll_locksSlotsBeforeBookings_andRereadsSlotsUntilStable() {
+        // given
+        LocalDateTime early = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime late = LocalDateTime.of(2025, 1, 1, 12, 0);
+        given(bookingRepository.findSlotTimes(List.of(1L, 2L)))
+                .willReturn(List.of(late), List.of(early, late), List.of(early, late));
+        given(bookingRepository.lockSeatHolds(eq(List.of(1L, 2L)), any(), any()))
+                .willReturn(List.of(new SeatHold(1L, early, 2, BookingStatus.PENDING)));
+
+        // when
+        bookingService.changeStatusAll(List.of(1L, 2L), BookingStatus.CONFIRMED);
+
+        // then
+        InOrder inOrder = inOrder(slotAdmission, bookingRepository);
+        inOrder.verify(slotAdmission).lockSlots(Set.of(late));
+        inOrder.verify(slotAdmission).lockSlots(Set.of(early));
+        inOrder.verify(bookingRepository).lockSeatHolds(List.of(1L, 2L), BookingStatus.CONFIRMED.allowedSources(),
+                Set.of(early, late));
+    }
+
+    @Test
+    void expire_cancelsLockedPendingBookingsAndReleasesTheirSeats() {
+        // given
+        LocalDateTime slot = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime createdBefore = LocalDateTime.of(2024, 12, 1, 12, 0);
+        given(bookingRepository.findSlotTimes(List.of(1L, 2L))).willReturn(List.of(slot));
+        given(bookingRepository.lockExpirable(List.of(1L, 2L), BookingStatus.PENDING, createdBefore, Set.of(slot)))
+                .willReturn(List.of(new SeatHold(2L, slot, 3, BookingStatus.PENDING)));
+
+        // when
+        List<Long> expired = bookingService.expire(List.of(1L, 2L), createdBefore);
+
+        // then
+        assertThat(expired).containsExactly(2L);
+        InOrder inOrder = inOrder(slotAdmission, bookingRepository);
+        inOrder.verify(slotAdmission).lockSlots(Set.of(slot));
+        inOrder.verify(bookingRepository).lockExpirable(List.of(1L, 2L), BookingStatus.PENDING, createdBefore,
+                Set.of(slot));
+        then(bookingRepository).should().updateStatusForIds(List.of(2L), BookingStatus.CANCELLED);
+        then(slotAdmission).should().release(slot, 3);
+        then(cacheInvalidator).should().invalidate(List.of(2L));
+    }
+
     @Test
     void delete_callsRepositoryDeleteById() {
         // when
@@ -156,5 +400,49 @@ class BookingServiceTest {
 
         // then
         then(bookingRepository).should(times(1)).deleteById(eq(10L));
+        then(cacheInvalidator).should().invalidate(10L);
+    }
+
+    @Test
+    void deleteChunk_deletesLockedRowsAndReleasesOnlyHeldSeats() {
+        // given
+        LocalDateTime slot = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime before = LocalDateTime.of(2025, 2, 1, 0, 0);
+        EnumSet<BookingStatus> statuses = EnumSet.of(BookingStatus.PENDING, BookingStatus.CANCELLED);
+        given(bookingRepository.findDeletableIds(eq(statuses), eq(before), any(Pageable.class)))
+                .willReturn(List.of(1L, 2L));
+        given(bookingRepository.findSlotTimes(List.of(1L, 2L))).willReturn(List.of(slot));
+        given(bookingRepository.lockDeletable(List.of(1L, 2L), statuses, before, Set.of(slot)))
+                .willReturn(List.of(new SeatHold(1L, slot, 2, BookingStatus.PENDING),
+                        new SeatHold(2L, slot, 4, BookingStatus.CANCELLED)));
+        given(bookingRepository.deleteByIdsBefore(List.of(1L, 2L), before)).willReturn(2);
+
+        // when
+        int deleted = bookingService.deleteChunk(statuses, before, 100);
+
+        // then
+        assertThat(deleted).isEqualTo(2);
+        InOrder inOrder = inOrder(slotAdmission, bookingRepository);
+        inOrder.verify(slotAdmission).lockSlots(Set.of(slot));
+        inOrder.verify(bookingRepository).lockDeletable(List.of(1L, 2L), statuses, before, Set.of(slot));
+        then(slotAdmission).should().release(slot, 2);
+        then(bookingRepository).should(never()).deleteById(any());
+        then(eventRecorder).should().deleted(1L);
+        then(eventRecorder).should().deleted(2L);
+        then(cacheInvalidator).should().invalidate(List.of(1L, 2L));
+        then(cacheInvalidator).should(never()).invalidate(anyLong());
+    }
+
+    private void runAdmittedWork() {
+        given(slotAdmission.admit(any(), any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    private static void setId(Booking booking, Long id) {
+        try {
+            var idField = Booking.class.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(booking, id);
+        } catch (Exception ignored) {}
     }
 }
\ No newline at end of file
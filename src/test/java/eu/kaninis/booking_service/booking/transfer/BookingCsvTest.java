@@ -0,0 +1,59 @@
+package eu.kaninis.booking_service.booking.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingCsvTest {
+
+    @Test
+    void writeThenRead_keepsQuotesNewlinesEmptyStringsAndNulls() throws IOException {
+        // given
+        StringWriter out = new StringWriter();
+        BookingCsv.writeRecord(out, 1L, "Smith, \"Jo\"", "a\nb", "", null, "PENDING");
+
+        // when
+        BookingCsv.RecordReader reader = new BookingCsv.RecordReader(new StringReader(out.toString()));
+
+        // then: "" is an empty string and an empty field is NULL, as in COPY
+        assertThat(out.toString()).isEqualTo("1,\"Smith, \"\"Jo\"\"\",\"a\nb\",\"\",,PENDING\n");
+        assertThat(reader.next()).isEqualTo(Arrays.asList("1", "Smith, \"Jo\"", "a\nb", "", null, "PENDING"));
+        assertThat(reader.next()).isNull();
+        assertThat(reader.line()).isEqualTo(3);
+    }
+
+    @Test
+    void read_acceptsCrLfAndAMissingFinalNewline() throws IOException {
+        // given
+        BookingCsv.RecordReader reader = new BookingCsv.RecordReader(new StringReader("a,b\r\nc,\"d\""));
+
+        // when / then
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThat(reader.next()).containsExactly("c", "d");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void read_unterminatedQuote_fails() {
+        BookingCsv.RecordReader reader = new BookingCsv.RecordReader(new StringReader("1,\"open\n"));
+
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void timestamps_useCopyStyleAndParseEitherSeparator() {
+        LocalDateTime slot = LocalDateTime.of(2030, 6, 1, 19, 0);
+
+        assertThat(BookingCsv.timestamp(slot)).isEqualTo("2030-06-01 19:00:00");
+        assertThat(BookingCsv.parseTimestamp("2030-06-01 19:00:00")).isEqualTo(slot);
+        assertThat(BookingCsv.parseTimestamp("2030-06-01T19:00")).isEqualTo(slot);
+        assertThat(BookingCsv.parseTimestamp(null)).isNull();
+    }
+}
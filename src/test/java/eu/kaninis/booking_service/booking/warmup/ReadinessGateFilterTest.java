@@ -0,0 +1,65 @@
+package eu.kaninis.booking_service.booking.warmup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadinessGateFilterTest {
+
+    private ApplicationAvailabilityBean availability;
+    private ReadinessGateFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        availability = new ApplicationAvailabilityBean();
+        filter = new ReadinessGateFilter(availability);
+    }
+
+    @Test
+    void beforeReady_refusesClientsButLetsWarmupAndActuatorThrough() throws Exception {
+        // when + then
+        MockHttpServletResponse refused = perform("/bookings", "203.0.113.7", false);
+        assertThat(refused.getStatus()).isEqualTo(503);
+        assertThat(refused.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(perform("/bookings", "127.0.0.1", true).getStatus()).isEqualTo(200);
+        assertThat(perform("/actuator/health/readiness", "203.0.113.7", false).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void warmupHeaderFromElsewhere_isRefused() throws Exception {
+        assertThat(perform("/bookings", "203.0.113.7", true).getStatus()).isEqualTo(503);
+    }
+
+    @Test
+    void onceAcceptingTraffic_letsClientsThroughUntilRefusingAgain() throws Exception {
+        // given
+        publish(ReadinessState.ACCEPTING_TRAFFIC);
+
+        // when + then
+        assertThat(perform("/bookings", "203.0.113.7", false).getStatus()).isEqualTo(200);
+        publish(ReadinessState.REFUSING_TRAFFIC);
+        assertThat(perform("/bookings", "203.0.113.7", false).getStatus()).isEqualTo(503);
+    }
+
+    private void publish(ReadinessState state) {
+        availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, state));
+    }
+
+    private MockHttpServletResponse perform(String uri, String remoteAddr, boolean warmup) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddr);
+        if (warmup) {
+            request.addHeader(WarmupRequests.HEADER, "true");
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}